@@ -2,8 +2,10 @@ package com.payment.configuration;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 public class SwellConfig {
 
 	
@@ -23,6 +25,276 @@ public class SwellConfig {
 	private int port;
 	
 	
+	// Minimum amount of warm connections kept in the pool.
+	@Value("${api.swell.pool.minIdle}")
+	private int poolMinIdle;
+	
+	
+	// Maximum amount of idle connections kept in the pool.
+	@Value("${api.swell.pool.maxIdle}")
+	private int poolMaxIdle;
+	
+	
+	// Maximum amount of connections open at once (idle + borrowed).
+	@Value("${api.swell.pool.maxTotal}")
+	private int poolMaxTotal;
+	
+	
+	// How long a connection may live before it is retired, in milliseconds.
+	@Value("${api.swell.pool.maxLifetimeMs}")
+	private long poolMaxLifetimeMs;
+	
+	
+	// How long a connection may sit idle before it is retired, in milliseconds.
+	@Value("${api.swell.pool.idleTimeoutMs}")
+	private long poolIdleTimeoutMs;
+	
+	
+	// How long a caller waits for a free connection, in milliseconds.
+	@Value("${api.swell.pool.borrowTimeoutMs}")
+	private long poolBorrowTimeoutMs;
+	
+	
+	// Read timeout applied to each socket, in milliseconds.
+	@Value("${api.swell.pool.socketTimeoutMs}")
+	private int socketTimeoutMs;
+	
+	
+	// Amount of selector threads driving the non-blocking transport.
+	@Value("${api.swell.nio.selectorThreads}")
+	private int nioSelectorThreads;
+	
+	
+	// Amount of multiplexed connections used by the non-blocking transport.
+	@Value("${api.swell.nio.connections}")
+	private int nioConnections;
+	
+	
+	// Amount of threads running asynchronous swell calls.
+	@Value("${api.swell.executor.threads}")
+	private int executorThreads;
+	
+	
+	// How many asynchronous swell calls may wait for a thread before new ones are rejected.
+	@Value("${api.swell.executor.queueCapacity}")
+	private int executorQueueCapacity;
+	
+	
+	// Maximum amount of GET responses held by the response cache.
+	@Value("${api.swell.cache.maxEntries}")
+	private int cacheMaxEntries;
+	
+	
+	// How long responses under /accounts/ are cached, in milliseconds (0 disables).
+	@Value("${api.swell.cache.accountsTtlMs}")
+	private long cacheAccountsTtlMs;
+	
+	
+	// How long responses under /products are cached, in milliseconds (0 disables).
+	@Value("${api.swell.cache.productsTtlMs}")
+	private long cacheProductsTtlMs;
+	
+	
+	// How long responses under /subscriptions/ are cached, in milliseconds (0 disables).
+	@Value("${api.swell.cache.subscriptionsTtlMs}")
+	private long cacheSubscriptionsTtlMs;
+	
+	
+	// Maximum amount of page batches fetched at once across every full collection fetch.
+	@Value("${api.swell.pages.parallelism}")
+	private int pageParallelism;
+	
+	
+	// How many times a failed page batch is retried before the fetch fails.
+	@Value("${api.swell.pages.retries}")
+	private int pageRetries;
+	
+	
+	// How many pages a streamed fetch requests ahead of its consumer.
+	@Value("${api.swell.pages.prefetch}")
+	private int pagePrefetch;
+	
+	
+	// How long a full collection fetch may take, in milliseconds.
+	@Value("${api.swell.pages.timeoutMs}")
+	private long pageTimeoutMs;
+	
+	
+	// Whether the replica is kept in sync with swell on the api.swell.sync.intervalMs schedule.
+	@Value("${api.swell.sync.enabled}")
+	private boolean syncEnabled;
+	
+	
+	// How far back each delta sync looks before the last watermark, in milliseconds.
+	@Value("${api.swell.sync.overlapMs}")
+	private long syncOverlapMs;
+	
+	
+	// Where the sync keeps its watermarks.
+	@Value("${api.swell.sync.dataDir}")
+	private String syncDataDir;
+	
+	
+	// Whether account lookups are answered from the synced replica when it holds the account.
+	@Value("${api.swell.replica.readAccounts}")
+	private boolean replicaReadAccounts;
+	
+	
+	// How long an id or email swell reported as unknown is rejected locally, in milliseconds (0 disables).
+	@Value("${api.swell.accounts.negativeTtlMs}")
+	private long accountsNegativeTtlMs;
+	
+	
+	// Maximum amount of unknown ids and emails remembered.
+	@Value("${api.swell.accounts.negativeMaxEntries}")
+	private int accountsNegativeMaxEntries;
+	
+	
+	// Whether emails missing from the Bloom filter of known emails are rejected locally.
+	@Value("${api.swell.accounts.bloom.enabled}")
+	private boolean accountsBloomEnabled;
+	
+	
+	// How many account emails the Bloom filter is sized for.
+	@Value("${api.swell.accounts.bloom.expectedEmails}")
+	private long accountsBloomExpectedEmails;
+	
+	
+	// The false positive rate of the Bloom filter at its expected size.
+	@Value("${api.swell.accounts.bloom.falsePositiveRate}")
+	private double accountsBloomFalsePositiveRate;
+	
+	
+	// How long each part of a customer view may take before it is left out, in milliseconds.
+	@Value("${api.swell.customer.timeoutMs}")
+	private long customerTimeoutMs;
+	
+	
+	// Maximum amount of orders and subscriptions in a customer view.
+	@Value("${api.swell.customer.recordLimit}")
+	private int customerRecordLimit;
+	
+	
+	// Most attempts of an idempotent request that failed to reach swell.
+	@Value("${api.swell.retry.maxAttempts}")
+	private int retryMaxAttempts;
+	
+	
+	// The backoff before the first retry, doubled for every retry after it and jittered, in milliseconds.
+	@Value("${api.swell.retry.baseBackoffMs}")
+	private long retryBaseBackoffMs;
+	
+	
+	// The longest backoff between retries, in milliseconds.
+	@Value("${api.swell.retry.maxBackoffMs}")
+	private long retryMaxBackoffMs;
+	
+	
+	// How many failures to reach swell in a row open the circuit breaker.
+	@Value("${api.swell.breaker.failureThreshold}")
+	private int breakerFailureThreshold;
+	
+	
+	// How long the circuit breaker fails requests fast before letting a probe through, in milliseconds.
+	@Value("${api.swell.breaker.openMs}")
+	private long breakerOpenMs;
+	
+	
+	// Reads (GETs) sent to swell per second, zero for no limit.
+	@Value("${api.swell.rateLimit.reads.perSecond}")
+	private double rateLimitReadsPerSecond;
+	
+	
+	// How many reads can be sent at once after a quiet spell.
+	@Value("${api.swell.rateLimit.reads.burst}")
+	private int rateLimitReadsBurst;
+	
+	
+	// Writes (POST, PUT, DELETE) sent to swell per second, zero for no limit.
+	@Value("${api.swell.rateLimit.writes.perSecond}")
+	private double rateLimitWritesPerSecond;
+	
+	
+	// How many writes can be sent at once after a quiet spell.
+	@Value("${api.swell.rateLimit.writes.burst}")
+	private int rateLimitWritesBurst;
+	
+	
+	// Longest a request waits for its turn under the rate limit before it is rejected, in milliseconds.
+	@Value("${api.swell.rateLimit.queueTimeoutMs}")
+	private long rateLimitQueueTimeoutMs;
+	
+	
+	// How many requests may be in flight to swell at first, before the limit adapts to its latency.
+	@Value("${api.swell.concurrency.initialLimit}")
+	private int concurrencyInitialLimit;
+	
+	
+	// The adaptive concurrency limit never goes below this.
+	@Value("${api.swell.concurrency.minLimit}")
+	private int concurrencyMinLimit;
+	
+	
+	// The adaptive concurrency limit never goes above this, at most the pool size.
+	@Value("${api.swell.concurrency.maxLimit}")
+	private int concurrencyMaxLimit;
+	
+	
+	// How many times the lowest round trip a round trip may take before the limit is lowered.
+	@Value("${api.swell.concurrency.rttTolerance}")
+	private double concurrencyRttTolerance;
+	
+	
+	// What the limit is multiplied by when it is lowered.
+	@Value("${api.swell.concurrency.backoffRatio}")
+	private double concurrencyBackoffRatio;
+	
+	
+	// Longest a request waits for a slot under the concurrency limit, in milliseconds.
+	@Value("${api.swell.concurrency.acquireTimeoutMs}")
+	private long concurrencyAcquireTimeoutMs;
+	
+	
+	// Concurrency slots bulk requests always leave free for interactive ones.
+	@Value("${api.swell.priority.interactiveReserve}")
+	private int priorityInteractiveReserve;
+	
+	
+	// Longest a bulk request waits for capacity before it is rejected, in milliseconds.
+	@Value("${api.swell.priority.bulkTimeoutMs}")
+	private long priorityBulkTimeoutMs;
+	
+	
+	// Whether slow GETs are hedged with a second request.
+	@Value("${api.swell.hedge.enabled}")
+	private boolean hedgeEnabled;
+	
+	
+	// The latency percentile after which a GET is hedged.
+	@Value("${api.swell.hedge.percentile}")
+	private double hedgePercentile;
+	
+	
+	// Shortest a GET runs before it is hedged, in milliseconds.
+	@Value("${api.swell.hedge.minDelayMs}")
+	private long hedgeMinDelayMs;
+	
+	
+	// How many recent GET latencies the percentile is taken over.
+	@Value("${api.swell.hedge.samples}")
+	private int hedgeSamples;
+	
+	
+	// How many GETs, in percent, may be hedged.
+	@Value("${api.swell.hedge.budgetPercent}")
+	private double hedgeBudgetPercent;
+	
+	
+	// Longest since the last account sync the Bloom filter is trusted, in milliseconds.
+	@Value("${api.swell.accounts.bloom.maxStalenessMs}")
+	private long accountsBloomMaxStalenessMs;
+	
+	
 	// How much data can be fetched from swell.
 	public static final int FETCH_LIMIT = 1000;
 	
@@ -46,4 +318,274 @@ public class SwellConfig {
 		return port;
 	}
 	
+	
+	public int getPoolMinIdle() {
+		return poolMinIdle;
+	}
+	
+	
+	public int getPoolMaxIdle() {
+		return poolMaxIdle;
+	}
+	
+	
+	public int getPoolMaxTotal() {
+		return poolMaxTotal;
+	}
+	
+	
+	public long getPoolMaxLifetimeMs() {
+		return poolMaxLifetimeMs;
+	}
+	
+	
+	public long getPoolIdleTimeoutMs() {
+		return poolIdleTimeoutMs;
+	}
+	
+	
+	public long getPoolBorrowTimeoutMs() {
+		return poolBorrowTimeoutMs;
+	}
+	
+	
+	public int getSocketTimeoutMs() {
+		return socketTimeoutMs;
+	}
+	
+	
+	public int getNioSelectorThreads() {
+		return nioSelectorThreads;
+	}
+	
+	
+	public int getNioConnections() {
+		return nioConnections;
+	}
+	
+	
+	public int getExecutorThreads() {
+		return executorThreads;
+	}
+	
+	
+	public int getExecutorQueueCapacity() {
+		return executorQueueCapacity;
+	}
+	
+	
+	public int getCacheMaxEntries() {
+		return cacheMaxEntries;
+	}
+	
+	
+	public long getCacheAccountsTtlMs() {
+		return cacheAccountsTtlMs;
+	}
+	
+	
+	public long getCacheProductsTtlMs() {
+		return cacheProductsTtlMs;
+	}
+	
+	
+	public long getCacheSubscriptionsTtlMs() {
+		return cacheSubscriptionsTtlMs;
+	}
+	
+	
+	public int getPageParallelism() {
+		return pageParallelism;
+	}
+	
+	
+	public int getPageRetries() {
+		return pageRetries;
+	}
+	
+	
+	public int getPagePrefetch() {
+		return pagePrefetch;
+	}
+	
+	
+	public long getPageTimeoutMs() {
+		return pageTimeoutMs;
+	}
+	
+	
+	public boolean isSyncEnabled() {
+		return syncEnabled;
+	}
+	
+	
+	public long getSyncOverlapMs() {
+		return syncOverlapMs;
+	}
+	
+	
+	public String getSyncDataDir() {
+		return syncDataDir;
+	}
+	
+	
+	public boolean isReplicaReadAccounts() {
+		return replicaReadAccounts;
+	}
+	
+	
+	public long getAccountsNegativeTtlMs() {
+		return accountsNegativeTtlMs;
+	}
+	
+	
+	public int getAccountsNegativeMaxEntries() {
+		return accountsNegativeMaxEntries;
+	}
+	
+	
+	public boolean isAccountsBloomEnabled() {
+		return accountsBloomEnabled;
+	}
+	
+	
+	public long getAccountsBloomExpectedEmails() {
+		return accountsBloomExpectedEmails;
+	}
+	
+	
+	public double getAccountsBloomFalsePositiveRate() {
+		return accountsBloomFalsePositiveRate;
+	}
+	
+	
+	public long getCustomerTimeoutMs() {
+		return customerTimeoutMs;
+	}
+	
+	
+	public int getCustomerRecordLimit() {
+		return customerRecordLimit;
+	}
+	
+	
+	public int getRetryMaxAttempts() {
+		return retryMaxAttempts;
+	}
+	
+	
+	public long getRetryBaseBackoffMs() {
+		return retryBaseBackoffMs;
+	}
+	
+	
+	public long getRetryMaxBackoffMs() {
+		return retryMaxBackoffMs;
+	}
+	
+	
+	public int getBreakerFailureThreshold() {
+		return breakerFailureThreshold;
+	}
+	
+	
+	public long getBreakerOpenMs() {
+		return breakerOpenMs;
+	}
+	
+	
+	public double getRateLimitReadsPerSecond() {
+		return rateLimitReadsPerSecond;
+	}
+	
+	
+	public int getRateLimitReadsBurst() {
+		return rateLimitReadsBurst;
+	}
+	
+	
+	public double getRateLimitWritesPerSecond() {
+		return rateLimitWritesPerSecond;
+	}
+	
+	
+	public int getRateLimitWritesBurst() {
+		return rateLimitWritesBurst;
+	}
+	
+	
+	public long getRateLimitQueueTimeoutMs() {
+		return rateLimitQueueTimeoutMs;
+	}
+	
+	
+	public int getConcurrencyInitialLimit() {
+		return concurrencyInitialLimit;
+	}
+	
+	
+	public int getConcurrencyMinLimit() {
+		return concurrencyMinLimit;
+	}
+	
+	
+	public int getConcurrencyMaxLimit() {
+		return concurrencyMaxLimit;
+	}
+	
+	
+	public double getConcurrencyRttTolerance() {
+		return concurrencyRttTolerance;
+	}
+	
+	
+	public double getConcurrencyBackoffRatio() {
+		return concurrencyBackoffRatio;
+	}
+	
+	
+	public long getConcurrencyAcquireTimeoutMs() {
+		return concurrencyAcquireTimeoutMs;
+	}
+	
+	
+	public int getPriorityInteractiveReserve() {
+		return priorityInteractiveReserve;
+	}
+	
+	
+	public long getPriorityBulkTimeoutMs() {
+		return priorityBulkTimeoutMs;
+	}
+	
+	
+	public boolean isHedgeEnabled() {
+		return hedgeEnabled;
+	}
+	
+	
+	public double getHedgePercentile() {
+		return hedgePercentile;
+	}
+	
+	
+	public long getHedgeMinDelayMs() {
+		return hedgeMinDelayMs;
+	}
+	
+	
+	public int getHedgeSamples() {
+		return hedgeSamples;
+	}
+	
+	
+	public double getHedgeBudgetPercent() {
+		return hedgeBudgetPercent;
+	}
+	
+	
+	public long getAccountsBloomMaxStalenessMs() {
+		return accountsBloomMaxStalenessMs;
+	}
+	
 }
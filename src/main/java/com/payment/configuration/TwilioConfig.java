@@ -0,0 +1,219 @@
+package com.payment.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.payment.service.TwilioHttpPool;
+import com.twilio.http.TwilioRestClient;
+
+@Configuration
+public class TwilioConfig {
+	
+	
+	// Twilio account credentials.
+	@Value("${api.twilio.accountSid}")
+	private String accountSid;
+	
+	
+	@Value("${api.twilio.authToken}")
+	private String authToken;
+	
+	
+	// Most connections open to twilio at once.
+	@Value("${api.twilio.http.maxConnections}")
+	private int httpMaxConnections;
+	
+	
+	// How long to wait for a free pooled connection, in milliseconds.
+	@Value("${api.twilio.http.poolTimeoutMs}")
+	private int httpPoolTimeoutMs;
+	
+	
+	// How long to wait for a connection to twilio to open, in milliseconds.
+	@Value("${api.twilio.http.connectTimeoutMs}")
+	private int httpConnectTimeoutMs;
+	
+	
+	// How long to wait for twilio to respond, in milliseconds.
+	@Value("${api.twilio.http.readTimeoutMs}")
+	private int httpReadTimeoutMs;
+	
+	
+	// How long an idle connection is kept for reuse, in milliseconds.
+	@Value("${api.twilio.http.keepAliveMs}")
+	private long httpKeepAliveMs;
+	
+	
+	// Length of the codes generated by the local otp provider.
+	@Value("${api.otp.local.codeLength}")
+	private int otpCodeLength;
+	
+	
+	// How long a locally generated code is valid, in milliseconds.
+	@Value("${api.otp.local.ttlMs}")
+	private long otpTtlMs;
+	
+	
+	// How many wrong codes may be tried before a locally generated code is discarded.
+	@Value("${api.otp.local.maxAttempts}")
+	private int otpMaxAttempts;
+	
+	
+	// Most locally generated codes outstanding at once.
+	@Value("${api.otp.local.maxEntries}")
+	private int otpMaxEntries;
+	
+	
+	// The twilio number locally generated codes are texted from.
+	@Value("${api.otp.local.smsFrom}")
+	private String otpSmsFrom;
+	
+	
+	// SendGrid settings for emailing locally generated codes.
+	@Value("${api.otp.local.sendGridApiKey}")
+	private String otpSendGridApiKey;
+	
+	
+	@Value("${api.otp.local.emailFrom}")
+	private String otpEmailFrom;
+	
+	
+	@Value("${api.otp.local.emailSubject}")
+	private String otpEmailSubject;
+	
+	
+	// Optional SendGrid template, given the {{code}}, {{backendUrl}} and {{userEmail}} substitutions.
+	@Value("${api.otp.local.emailTemplateId}")
+	private String otpEmailTemplateId;
+	
+	
+	// Amount of threads sending queued verifications to twilio.
+	@Value("${api.twilio.dispatch.workers}")
+	private int dispatchWorkers;
+	
+	
+	// How many verifications may wait to be sent before new ones are rejected.
+	@Value("${api.twilio.dispatch.queueCapacity}")
+	private int dispatchQueueCapacity;
+	
+	
+	// How many times a failed send is retried.
+	@Value("${api.twilio.dispatch.retries}")
+	private int dispatchRetries;
+	
+	
+	// How long to wait before the first retry, doubled for every retry after it, in milliseconds.
+	@Value("${api.twilio.dispatch.backoffMs}")
+	private long dispatchBackoffMs;
+	
+	
+	// How long the status of a dispatched verification can be queried, in milliseconds.
+	@Value("${api.twilio.dispatch.statusTtlMs}")
+	private long dispatchStatusTtlMs;
+	
+	
+	// The client every twilio call is made with, sharing one connection pool.
+	@Bean
+	public TwilioRestClient twilioRestClient(TwilioHttpPool pool) {
+		return new TwilioRestClient.Builder(accountSid, authToken)
+				.httpClient(pool.getHttpClient())
+				.build();
+	}
+	
+	
+	public int getHttpMaxConnections() {
+		return httpMaxConnections;
+	}
+	
+	
+	public int getHttpPoolTimeoutMs() {
+		return httpPoolTimeoutMs;
+	}
+	
+	
+	public int getHttpConnectTimeoutMs() {
+		return httpConnectTimeoutMs;
+	}
+	
+	
+	public int getHttpReadTimeoutMs() {
+		return httpReadTimeoutMs;
+	}
+	
+	
+	public long getHttpKeepAliveMs() {
+		return httpKeepAliveMs;
+	}
+	
+	
+	public int getOtpCodeLength() {
+		return otpCodeLength;
+	}
+	
+	
+	public long getOtpTtlMs() {
+		return otpTtlMs;
+	}
+	
+	
+	public int getOtpMaxAttempts() {
+		return otpMaxAttempts;
+	}
+	
+	
+	public int getOtpMaxEntries() {
+		return otpMaxEntries;
+	}
+	
+	
+	public String getOtpSmsFrom() {
+		return otpSmsFrom;
+	}
+	
+	
+	public String getOtpSendGridApiKey() {
+		return otpSendGridApiKey;
+	}
+	
+	
+	public String getOtpEmailFrom() {
+		return otpEmailFrom;
+	}
+	
+	
+	public String getOtpEmailSubject() {
+		return otpEmailSubject;
+	}
+	
+	
+	public String getOtpEmailTemplateId() {
+		return otpEmailTemplateId;
+	}
+	
+	
+	public int getDispatchWorkers() {
+		return dispatchWorkers;
+	}
+	
+	
+	public int getDispatchQueueCapacity() {
+		return dispatchQueueCapacity;
+	}
+	
+	
+	public int getDispatchRetries() {
+		return dispatchRetries;
+	}
+	
+	
+	public long getDispatchBackoffMs() {
+		return dispatchBackoffMs;
+	}
+	
+	
+	public long getDispatchStatusTtlMs() {
+		return dispatchStatusTtlMs;
+	}
+	
+}
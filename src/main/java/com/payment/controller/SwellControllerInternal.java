@@ -1,15 +1,25 @@
 package com.payment.controller;
 
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.payment.integration.swell.dto.SwellCustomer;
 import com.payment.service.swell.SwellAccountService;
+import com.payment.service.swell.SwellCustomerService;
+import com.payment.service.swell.SwellExportService;
+import com.payment.service.swell.SwellMetricsService;
 import com.payment.util.ApiDataObject;
 
 import lombok.RequiredArgsConstructor;
@@ -29,6 +39,20 @@ public class SwellControllerInternal {
 
 
 	private final SwellAccountService accounts;
+	private final SwellCustomerService customers;
+	private final SwellExportService exports;
+	private final SwellMetricsService metrics;
+	
+	
+	// Newline-delimited JSON, one record per line.
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+
+	// Returns the concurrency limit, circuit breaker and pool state of the swell connection.
+	@GetMapping("/metrics")
+	public ApiDataObject getMetrics() {
+		return metrics.getMetrics();
+	}
 
 
 	// Returns a count of total users.
@@ -45,6 +69,13 @@ public class SwellControllerInternal {
 	}
 
 
+	// Fetches a customer's account together with their orders and subscriptions.
+	@GetMapping("/customers/{accountId}")
+	public ApiDataObject getCustomer(@PathVariable("accountId") String accountId) {
+		return customers.getCustomer(accountId);
+	}
+
+
 	// Deletes an account from swell.
 	@DeleteMapping("/account/{email}")
 	public ApiDataObject deleteAccount(@PathVariable("email") String email) {
@@ -64,5 +95,46 @@ public class SwellControllerInternal {
 	public ApiDataObject generateToken(@PathVariable("email") String email) {
 		return accounts.generatePasswordToken(email);
 	}
+	
+	
+	// Streams every account as newline-delimited JSON.
+	@GetMapping("/accounts/export")
+	public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(value = "limit", defaultValue = "1000") int limit,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+		return export(gzip, out -> exports.exportAccounts(limit, out));
+	}
+	
+	
+	// Streams every order as newline-delimited JSON.
+	@GetMapping("/orders/export")
+	public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "limit", defaultValue = "1000") int limit,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+		return export(gzip, out -> exports.exportOrders(limit, out));
+	}
+	
+	
+	// Streams every subscription as newline-delimited JSON.
+	@GetMapping("/subscriptions/export")
+	public ResponseEntity<StreamingResponseBody> exportSubscriptions(@RequestParam(value = "limit", defaultValue = "1000") int limit,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+		return export(gzip, out -> exports.exportSubscriptions(limit, out));
+	}
+	
+	
+	/**
+	 * Wraps an export into a streamed response, gzipped when asked for. The gzip stream is sync
+	 * flushed, so every page still reaches the client as soon as it is written.
+	 */
+	private ResponseEntity<StreamingResponseBody> export(boolean gzip, StreamingResponseBody export) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(NDJSON);
+		if (!gzip) {
+			return response.body(export);
+		}
+		return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+			GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+			export.writeTo(compressed);
+			compressed.finish();
+		});
+	}
 
 }
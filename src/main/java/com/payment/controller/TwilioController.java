@@ -5,6 +5,8 @@ import com.payment.dto.TwilioRequest;
 import com.payment.service.TwilioService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -23,6 +25,18 @@ public class TwilioController {
         return twilioService.sendVerification(twilioRequest);
     }
 
+    @PostMapping("send-verification/async")
+    @ResponseStatus(code = HttpStatus.ACCEPTED)
+    public ServiceResponse sendVerificationAsync(@RequestBody TwilioRequest twilioRequest) {
+        return twilioService.sendVerificationAsync(twilioRequest);
+    }
+
+    @GetMapping("send-verification/{dispatchId}")
+    @ResponseStatus(code = HttpStatus.OK)
+    public ServiceResponse getDispatchStatus(@PathVariable String dispatchId) {
+        return twilioService.getDispatchStatus(dispatchId);
+    }
+
     @PostMapping("verify")
     @ResponseStatus(code = HttpStatus.OK)
     public ServiceResponse checkOtpCode(@RequestBody TwilioRequest twilioRequest) {
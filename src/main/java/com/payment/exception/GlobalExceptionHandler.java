@@ -1,5 +1,7 @@
 package com.payment.exception;
 
+import com.payment.exception.classes.ServiceOverloadedException;
+import com.payment.exception.classes.SwellUnavailableException;
 import com.payment.exception.error.ApiError;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -13,6 +15,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import static com.payment.exception.ResponseErrorsUtil.ERROR_MESSAGES;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 
 @RestControllerAdvice
@@ -48,6 +51,14 @@ public class GlobalExceptionHandler {
         return buildResponseEntity(buildApiError(BAD_REQUEST, ex));
     }
 
+    @ExceptionHandler({
+            SwellUnavailableException.class,
+            ServiceOverloadedException.class
+    })
+    public ResponseEntity<Object> handleUnavailable(IllegalStateException ex) {
+        return buildResponseEntity(buildApiError(SERVICE_UNAVAILABLE, ex));
+    }
+
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGenericException(Exception ex) {
@@ -0,0 +1,11 @@
+package com.payment.exception.classes;
+
+public class JsonDataParseException extends RuntimeException {
+    public JsonDataParseException(String message) {
+        super(message);
+    }
+
+    public JsonDataParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
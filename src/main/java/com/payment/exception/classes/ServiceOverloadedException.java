@@ -0,0 +1,7 @@
+package com.payment.exception.classes;
+
+public class ServiceOverloadedException extends IllegalStateException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.payment.exception.classes;
+
+public class SwellUnavailableException extends IllegalStateException {
+    public SwellUnavailableException(String message) {
+        super(message);
+    }
+
+    public SwellUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,41 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import com.payment.util.RequestType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * A single request to Swell, used to describe the calls of a pipelined request.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class SwellCall {
+    private final RequestType type;
+    private final String path;
+    private final ApiDataObject body;
+
+    public static SwellCall of(RequestType type, String path, ApiDataObject body) {
+        return new SwellCall(type, path, body);
+    }
+
+    public static SwellCall get(String path) {
+        return new SwellCall(RequestType.GET, path, null);
+    }
+
+    public static SwellCall post(String path, ApiDataObject body) {
+        return new SwellCall(RequestType.POST, path, body);
+    }
+
+    public static SwellCall put(String path, ApiDataObject body) {
+        return new SwellCall(RequestType.PUT, path, body);
+    }
+
+    public static SwellCall delete(String path, ApiDataObject body) {
+        return new SwellCall(RequestType.DELETE, path, body);
+    }
+}
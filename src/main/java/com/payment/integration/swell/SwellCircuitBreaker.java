@@ -0,0 +1,129 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Stops sending requests to Swell while it cannot be reached, so a brownout is met with fast
+ * failures instead of every caller piling up on timeouts and retries.
+ * <p>
+ * After {@code api.swell.breaker.failureThreshold} failures in a row the breaker opens and
+ * every request fails with a {@link SwellUnavailableException}. Once {@code api.swell.breaker.openMs}
+ * has passed a single probe request is let through (half-open): its success closes the breaker,
+ * its failure opens it again. Requests let through before the breaker opened may still end
+ * meanwhile, so each request holds the {@link Ticket} it was given and only the probe's ticket
+ * can end the half-open state.
+ * <p>
+ * Only failures to reach Swell count. An error response means Swell is up and counts as a success.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellCircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    // The ticket of every request let through while the breaker is closed.
+    private static final Ticket ADMITTED = new Ticket();
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // The ticket of the probe in flight, null when there is none.
+    private final AtomicReference<Ticket> probe = new AtomicReference<>();
+    private volatile long openedAt;
+
+    public SwellCircuitBreaker(SwellConfig config) {
+        this.failureThreshold = config.getBreakerFailureThreshold();
+        this.openMs = config.getBreakerOpenMs();
+    }
+
+    /**
+     * Asks to make a request. Every successful call must be followed by one of
+     * {@link #onSuccess(Ticket)}, {@link #onFailure(Ticket)} or {@link #release(Ticket)}, given
+     * the ticket returned.
+     *
+     * @return The ticket of the request, telling whether it is the half-open probe.
+     * @throws SwellUnavailableException when the breaker is open.
+     */
+    public Ticket acquire() {
+        if (state.get() == State.CLOSED) {
+            return ADMITTED;
+        }
+        if (state.get() == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        Ticket ticket = new Ticket();
+        if (state.get() == State.HALF_OPEN && probe.compareAndSet(null, ticket)) {
+            log.info("Probing swell after {}ms of failures", System.currentTimeMillis() - openedAt);
+            return ticket;
+        }
+        throw new SwellUnavailableException("Swell is unavailable, please try again shortly.");
+    }
+
+    /**
+     * Records that Swell answered. Only the probe closes an open breaker.
+     */
+    public void onSuccess(Ticket ticket) {
+        if (probe.compareAndSet(ticket, null)) {
+            consecutiveFailures.set(0);
+            state.set(State.CLOSED);
+            log.info("Swell is reachable again, closing the circuit breaker");
+        } else if (state.get() == State.CLOSED) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Records that Swell could not be reached. Once the breaker is open only the probe's
+     * failure counts.
+     */
+    public void onFailure(Ticket ticket) {
+        if (probe.compareAndSet(ticket, null)) {
+            open();
+            return;
+        }
+        if (state.get() == State.CLOSED && consecutiveFailures.incrementAndGet() >= failureThreshold
+                && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            openedAt = System.currentTimeMillis();
+            log.warn("Swell failed {} times in a row, failing requests for {}ms", failureThreshold, openMs);
+        }
+    }
+
+    /**
+     * Ends a request that neither reached nor failed to reach Swell, e.g. one that timed out
+     * waiting for a local connection. The probe's ticket lets another probe through.
+     */
+    public void release(Ticket ticket) {
+        probe.compareAndSet(ticket, null);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        state.set(State.OPEN);
+        log.warn("The swell probe failed, failing requests for another {}ms", openMs);
+    }
+
+    /**
+     * Handed out by {@link #acquire()} for each request let through.
+     */
+    public static final class Ticket {
+        private Ticket() {
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import com.payment.util.ApiDataObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * Adapts how many requests may be in flight to Swell at once to the latency it observes.
+ * <p>
+ * The limit grows by about one request per round trip (additive increase) while round trips
+ * stay close to the lowest seen, and is cut by {@code api.swell.concurrency.backoffRatio}
+ * (multiplicative decrease) when they grow past {@code rttTolerance} times the lowest or when
+ * a request fails to reach Swell. Queueing inside Swell shows up as a longer round trip well
+ * before it shows up as errors, so the limit settles where Swell is busy but not saturated.
+ * The lowest round trip is re-learned every {@value #MIN_RTT_SAMPLES} samples, so a permanent
+ * change of Swell's latency is not mistaken for congestion.
+ * <p>
+ * A caller over the limit waits up to {@code api.swell.concurrency.acquireTimeoutMs} for a
+ * slot, then fails with a {@link SwellUnavailableException}.
+ * <p>
+ * {@link SwellPriority#BULK} requests always leave {@code api.swell.priority.interactiveReserve}
+ * slots free and never take a slot while an interactive request is waiting for one, so a bulk
+ * job only ever uses capacity interactive requests do not need. They wait up to
+ * {@code api.swell.priority.bulkTimeoutMs} for it.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellConcurrencyLimiter {
+    static final int MIN_RTT_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final long acquireTimeoutMs;
+    private final int interactiveReserve;
+    private final long bulkTimeoutMs;
+    private double limit;
+    private int inFlight;
+    private int bulkInFlight;
+    private int interactiveWaiting;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long lastRttNanos;
+    private int samples;
+
+    public SwellConcurrencyLimiter(SwellConfig config) {
+        this.minLimit = Math.max(1, config.getConcurrencyMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getConcurrencyMaxLimit());
+        this.rttTolerance = config.getConcurrencyRttTolerance();
+        this.backoffRatio = config.getConcurrencyBackoffRatio();
+        this.acquireTimeoutMs = config.getConcurrencyAcquireTimeoutMs();
+        this.interactiveReserve = config.getPriorityInteractiveReserve();
+        this.bulkTimeoutMs = config.getPriorityBulkTimeoutMs();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, config.getConcurrencyInitialLimit()));
+    }
+
+    /**
+     * Takes a slot, waiting for one when the limit is reached.
+     *
+     * @param priority - The priority of the request.
+     * @return The slot, to be ended with one of its methods once the request is done.
+     * @throws SwellUnavailableException when no slot frees up in time.
+     */
+    public synchronized Permit acquire(SwellPriority priority) {
+        boolean bulk = priority == SwellPriority.BULK;
+        long deadline = System.currentTimeMillis() + (bulk ? bulkTimeoutMs : acquireTimeoutMs);
+        if (!bulk) {
+            interactiveWaiting++;
+        }
+        try {
+            while (!admits(bulk)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SwellUnavailableException("Too many requests to swell in flight, please try again shortly.");
+                }
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwellUnavailableException("Interrupted while waiting to call swell", e);
+        } finally {
+            if (!bulk) {
+                interactiveWaiting--;
+            }
+        }
+        inFlight++;
+        if (bulk) {
+            bulkInFlight++;
+        }
+        return new Permit(bulk);
+    }
+
+    private boolean admits(boolean bulk) {
+        if (!bulk) {
+            return inFlight < (int) limit;
+        }
+        return interactiveWaiting == 0 && inFlight < (int) limit
+                && bulkInFlight < Math.max(1, (int) limit - interactiveReserve);
+    }
+
+    /**
+     * Takes a slot even over the limit, for callers that must not block. The request still
+     * counts towards the limit of the others, and its latency still adapts the limit.
+     */
+    public synchronized Permit acquireNow() {
+        inFlight++;
+        return new Permit(false);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return The limit, the requests in flight and the round trips it is based on.
+     */
+    public synchronized ApiDataObject stats() {
+        return new ApiDataObject()
+                .put("limit", (int) limit)
+                .put("inFlight", inFlight)
+                .put("bulkInFlight", bulkInFlight)
+                .put("interactiveWaiting", interactiveWaiting)
+                .put("minRttMs", minRttNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(minRttNanos))
+                .put("lastRttMs", TimeUnit.NANOSECONDS.toMillis(lastRttNanos));
+    }
+
+    private synchronized void end(boolean bulk, long rttNanos, boolean sample, boolean dropped) {
+        inFlight--;
+        if (bulk) {
+            bulkInFlight--;
+        }
+        if (dropped) {
+            decrease();
+        } else if (sample) {
+            adapt(rttNanos);
+        }
+        notifyAll();
+    }
+
+    private void adapt(long rttNanos) {
+        lastRttNanos = rttNanos;
+        if (++samples >= MIN_RTT_SAMPLES) {
+            samples = 0;
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (rttNanos > minRttNanos * rttTolerance) {
+            decrease();
+        } else if (inFlight + 1 >= limit / 2) {
+            // Only grow when the limit is actually being used.
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void decrease() {
+        double decreased = Math.max(minLimit, limit * backoffRatio);
+        if ((int) decreased < (int) limit) {
+            log.info("Lowering the swell concurrency limit to {}", (int) decreased);
+        }
+        limit = decreased;
+    }
+
+    /**
+     * A slot taken by one request. Only the first of its methods called has an effect.
+     */
+    public final class Permit {
+        private final boolean bulk;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Permit(boolean bulk) {
+            this.bulk = bulk;
+        }
+
+        /**
+         * Swell answered, its round trip adapts the limit.
+         */
+        public void success() {
+            if (ended.compareAndSet(false, true)) {
+                end(bulk, System.nanoTime() - startedAt, true, false);
+            }
+        }
+
+        /**
+         * Swell could not be reached or timed out, the limit is lowered.
+         */
+        public void dropped() {
+            if (ended.compareAndSet(false, true)) {
+                end(bulk, 0, false, true);
+            }
+        }
+
+        /**
+         * The request ended without telling anything about Swell's latency.
+         */
+        public void release() {
+            if (ended.compareAndSet(false, true)) {
+                end(bulk, 0, false, false);
+            }
+        }
+    }
+}
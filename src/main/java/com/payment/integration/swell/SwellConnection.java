@@ -1,141 +1,538 @@
 package com.payment.integration.swell;
 
 import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.JsonDataParseException;
+import com.payment.exception.classes.SwellUnavailableException;
 import com.payment.util.ApiDataObject;
 import com.payment.util.JsonDataParser;
+import com.payment.util.JsonDataWriter;
 import com.payment.util.RequestType;
 import lombok.extern.slf4j.Slf4j;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.stereotype.Component;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLHandshakeException;
-import javax.net.ssl.SSLParameters;
-import javax.net.ssl.SSLSocket;
-import javax.net.ssl.SSLSocketFactory;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.InetAddress;
-import java.net.SocketException;
-import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
  * An SSL Socket client that connects & communicates with the back-end of Swell.
+ * <p>
+ * Each request borrows a persistent connection from the {@link SwellConnectionPool}, so
+ * concurrent callers never share a socket and the TLS handshake is paid once per connection
+ * rather than once per request. {@link #requestAsync} goes over the non-blocking
+ * {@link SwellNioTransport} instead and never ties up the calling thread.
+ * <p>
+ * Plain GETs are served from the {@link SwellResponseCache} when possible, identical GETs in
+ * flight at the same time are collapsed by the {@link SwellRequestCoalescer}, a path fetched
+ * again within the same HTTP request is answered by the {@link SwellRequestMemo}, and every
+ * write invalidates the cached responses of the collection it touched. A GET that has to go to
+ * Swell and turns out slow may be hedged with a second request, see {@link SwellHedger}.
+ * <p>
+ * A request that fails to reach Swell is retried with a jittered exponential backoff when it
+ * is idempotent, or when it failed before anything was sent. The {@link SwellCircuitBreaker}
+ * fails requests fast while Swell keeps failing. Once the retries are used up, or while the
+ * breaker is open, a {@link SwellUnavailableException} is thrown.
+ * <p>
+ * {@link #requestAsync} sends every call to Swell exactly once: its GETs skip the cache, the
+ * coalescer, the memo and hedging, and its failures are not retried. Its writes still
+ * invalidate the cache and the memo.
+ * <p>
+ * Every request sent, including every retry, is paced by the {@link SwellRateLimiter}, and
+ * how many are in flight at once is bounded by the {@link SwellConcurrencyLimiter}. Requests
+ * are {@link SwellPriority#INTERACTIVE} unless the caller states another priority.
  *
  * @author Oska Jory <oska@excede.com.au>
- * <p>
- * TODO: Add request caching.
  */
 @Component
 @Slf4j
 public class SwellConnection {
     public static final String QUOTE = "\"";
+    private static final String CLIENT_FIELD = "$client";
+    private static final String KEY_FIELD = "$key";
+    // How many frames are written before their responses are read back.
+    public static final int MAX_PIPELINE_DEPTH = 16;
     private final SwellConfig config;
-    private SSLSocket socket;
+    private final SwellConnectionPool pool;
+    private final SwellNioTransport nioTransport;
+    private final SwellExecutor executor;
+    private final SwellResponseCache cache;
+    private final SwellRequestCoalescer coalescer;
+    private final SwellRequestMemo memo;
+    private final SwellCircuitBreaker breaker;
+    private final SwellRateLimiter rateLimiter;
+    private final SwellConcurrencyLimiter concurrencyLimiter;
+    private final SwellHedger hedger;
 
-    public SwellConnection(SwellConfig config) {
+    public SwellConnection(SwellConfig config, SwellConnectionPool pool, SwellNioTransport nioTransport, SwellExecutor executor,
+                           SwellResponseCache cache, SwellRequestCoalescer coalescer, SwellRequestMemo memo,
+                           SwellCircuitBreaker breaker, SwellRateLimiter rateLimiter, SwellConcurrencyLimiter concurrencyLimiter,
+                           SwellHedger hedger) {
         this.config = config;
-        this.socket = establishConnection();
-        if (socket.isConnected()) {
-            log.info("Successfully connected to to swell");
-        }
+        this.pool = pool;
+        this.nioTransport = nioTransport;
+        this.executor = executor;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.memo = memo;
+        this.breaker = breaker;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.hedger = hedger;
     }
 
     /**
-     * Constructs a new SSL Socket connection to Swell.
+     * Writes a call in the format readable by the Swell Server Protocol, a JSON array of the
+     * method, the path and the body signed with the store credentials. The body is streamed
+     * as is and never modified.
      *
-     * @return A socket connection to the host and port.
+     * @param out  - Where the frame is written to.
+     * @param call - The request being made.
      */
-    public SSLSocket establishConnection() {
-        try {
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(null, null, new SecureRandom());
-            SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
-            SSLSocket tempSocket = (SSLSocket) sslSocketFactory.createSocket(InetAddress.getByName(config.getHost()), config.getPort());
-            SSLParameters sslParams = new SSLParameters();
-            sslParams.setEndpointIdentificationAlgorithm("HTTPS");
-            tempSocket.setSSLParameters(sslParams);
-            tempSocket.setTcpNoDelay(true);
-            tempSocket.setKeepAlive(true);
-            if (!tempSocket.isConnected()) {
-                log.info("Swell already connected");
+    private void writeFrame(Appendable out, SwellCall call) throws IOException {
+        out.append('[').append(QUOTE).append(call.getType().name().toLowerCase()).append(QUOTE).append(", ");
+        JsonDataWriter.writeString(call.getPath().replace("\n", ""), out);
+        out.append(", {");
+        ApiDataObject body = call.getBody();
+        if (body != null) {
+            for (Map.Entry<?, ?> member : body.entrySet()) {
+                String name = String.valueOf(member.getKey());
+                if (CLIENT_FIELD.equals(name) || KEY_FIELD.equals(name)) {
+                    // The credentials are always the store's own.
+                    continue;
+                }
+                JsonDataWriter.writeString(name, out);
+                out.append(':');
+                JsonDataWriter.write(member.getValue(), out);
+                out.append(',');
             }
-            return tempSocket;
-        } catch (KeyManagementException | NoSuchAlgorithmException |
-                 IOException e) {
-            log.error("Failed to connect to swell.", e);
-            throw new IllegalStateException("Failed to connect to swell", e);
         }
+        JsonDataWriter.writeString(CLIENT_FIELD, out);
+        out.append(':');
+        JsonDataWriter.writeString(config.getStoreId(), out);
+        out.append(',');
+        JsonDataWriter.writeString(KEY_FIELD, out);
+        out.append(':');
+        JsonDataWriter.writeString(config.getSecretKey(), out);
+        out.append("}]");
+    }
 
+    public ApiDataObject request(RequestType type, String path, ApiDataObject body) {
+        return request(type, path, body, SwellPriority.INTERACTIVE);
     }
 
     /**
-     * Constructs the request into a format readable by the Swell Server Protocol.
+     * Makes a request as {@link #request(RequestType, String, ApiDataObject)} does, competing for
+     * Swell's capacity at the given priority.
      *
-     * @param method - The method that the request is making to, (GET, POST, PUT, DELETE) ?
-     * @param path   - The path to the
-     * @param body   - The body of data as a String in JSON format
-     * @return A constructed string holding the request being made to the server.
+     * @param type     - The type of request i.e (get, post, put, delete)
+     * @param path     - The API url path.
+     * @param body     - The data being sent with the request, may be null.
+     * @param priority - BULK for requests that are part of a large job.
+     * @return {@link ApiDataObject} - The response from the server.
      */
-    private String constructRequest(String method, String path, String body) {
-        return "[" + QUOTE + method.toLowerCase() + QUOTE + ", " + QUOTE + path.replace("\n", "") + QUOTE + ", " + body + "]";
+    public ApiDataObject request(RequestType type, String path, ApiDataObject body, SwellPriority priority) {
+        if (type != RequestType.GET) {
+            try {
+                return writeRequest(SwellCall.of(type, path, body), priority);
+            } finally {
+                cache.invalidate(path);
+                memo.clear();
+            }
+        }
+        if (body != null) {
+            return writeRequest(SwellCall.of(type, path, body), priority);
+        }
+        ApiDataObject memoized = memo.get(path);
+        if (memoized != null) {
+            return memoized;
+        }
+        ApiDataObject response = cachedGet(path, priority);
+        memo.put(path, response);
+        return response;
     }
 
-    public ApiDataObject request(RequestType type, String path, ApiDataObject body) {
-        return writeRequest(type.name().toLowerCase(), path, body);
+    /**
+     * Serves a GET from the response cache, or joins an identical one in flight, or makes it.
+     */
+    private ApiDataObject cachedGet(String path, SwellPriority priority) {
+        ApiDataObject cached = cache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation(path);
+        // Keyed by generation so a GET issued after a write never joins one issued before it.
+        return coalescer.execute(path + "#" + generation, () -> {
+            // Bulk jobs are not hedged, they are not waited on by anyone.
+            ApiDataObject response = priority == SwellPriority.BULK
+                    ? writeRequest(SwellCall.get(path), priority)
+                    : hedger.execute(leg -> writeRequest(SwellCall.get(path), leg, priority));
+            cache.put(path, response, generation);
+            return response;
+        });
     }
 
     /**
-     * Writes a request to the Swell Server via a SSL Socket pipeline request.
+     * Makes a request over the non-blocking transport without blocking the calling thread.
+     * The request always goes to Swell, even a GET whose response is cached, and is not retried.
      *
      * @param type - The type of request i.e (get, post, put, delete)
      * @param path - The API url path.
-     * @param data - The data being sent with the request Key:Value HashMap.
-     * @return JSONObject - The response from the server.
+     * @param body - The data being sent with the request, may be null.
+     * @return A future completed with the response from the server.
+     * @throws SwellUnavailableException when the circuit breaker is open.
+     */
+    public CompletableFuture<ApiDataObject> requestAsync(RequestType type, String path, ApiDataObject body) {
+        if (type != RequestType.GET) {
+            memo.clear();
+        }
+        long waitNanos = rateLimiter.reserve(type, 1);
+        SwellCircuitBreaker.Ticket ticket = breaker.acquire();
+        String frame = frame(SwellCall.of(type, path, body));
+        CompletableFuture<String> sent;
+        if (waitNanos > 0) {
+            // Waits for the rate limit without holding a thread.
+            CompletableFuture<Void> ready = new CompletableFuture<>();
+            Executor delayed = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, task -> {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    breaker.release(ticket);
+                    ready.completeExceptionally(new SwellUnavailableException("Too many requests to swell, please try again shortly.", e));
+                }
+            });
+            delayed.execute(() -> ready.complete(null));
+            sent = ready.thenCompose(ignored -> send(frame, ticket));
+        } else {
+            sent = send(frame, ticket);
+        }
+        return sent
+                .whenComplete((serverResponseData, error) -> {
+                    if (type != RequestType.GET) {
+                        cache.invalidate(path);
+                    }
+                })
+                .thenApplyAsync(serverResponseData -> requireResponse(JsonDataParser.parse(serverResponseData)), task -> {
+                    try {
+                        executor.execute(task);
+                    } catch (RejectedExecutionException e) {
+                        // The response is already in, parse it here rather than lose it.
+                        task.run();
+                    }
+                });
+    }
+
+    private CompletableFuture<String> send(String frame, SwellCircuitBreaker.Ticket ticket) {
+        SwellConcurrencyLimiter.Permit permit = concurrencyLimiter.acquireNow();
+        return nioTransport.send(frame, config.getSocketTimeoutMs())
+                .whenComplete((serverResponseData, error) -> recordOutcome(error, ticket, permit));
+    }
+
+    /**
+     * Writes several requests back-to-back over a single connection and reads their responses
+     * in order, so N independent calls cost one round trip instead of N.
+     * <p>
+     * Frames are sent in windows of {@link #MAX_PIPELINE_DEPTH} so neither side can fill its
+     * socket buffers while the other is still writing. A window only borrows a connection once
+     * its rate limit is granted, so no connection sits idle while it waits. Calls that depend on
+     * the response of a previous call cannot be pipelined.
+     *
+     * @param calls - The requests to make, in order.
+     * @return The responses from the server, in the same order as the calls.
      */
-    private ApiDataObject writeRequest(String type, String path, ApiDataObject data) {
+    public List<ApiDataObject> pipeline(List<SwellCall> calls) {
+        return pipeline(calls, SwellPriority.INTERACTIVE);
+    }
+
+    /**
+     * Pipelines requests as {@link #pipeline(List)} does, competing for Swell's capacity at the
+     * given priority.
+     *
+     * @param calls    - The requests to make, in order.
+     * @param priority - BULK for batches that are part of a large job.
+     * @return The responses from the server, in the same order as the calls.
+     */
+    public List<ApiDataObject> pipeline(List<SwellCall> calls, SwellPriority priority) {
+        List<ApiDataObject> responses = new ArrayList<>(calls.size());
+        if (calls.isEmpty()) {
+            return responses;
+        }
+        log.info("Pipelining {} requests to swell", calls.size());
         try {
-            if (socket == null || socket.isClosed()) {
-                socket = establishConnection();
+            for (int start = 0; start < calls.size(); start += MAX_PIPELINE_DEPTH) {
+                List<SwellCall> window = calls.subList(start, Math.min(start + MAX_PIPELINE_DEPTH, calls.size()));
+                // Waits for the rate limit before holding a connection or a concurrency slot.
+                acquireRateLimit(window, priority);
+                responses.addAll(pipelineWindow(window, priority));
             }
-            data = data == null ? new ApiDataObject() : data;
-            data.put("$client", config.getStoreId());
-            data.put("$key", config.getSecretKey());
-            String options = data.toString();
-            String request = constructRequest(type, path, options);
-            OutputStreamWriter out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
-            log.info("The request was: {}", request);
-            out.write(request + "\n");
-            out.flush();
-            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            String serverResponseData = reader.readLine();
-            log.info("The response was: {}", serverResponseData);
-            if (serverResponseData == null || serverResponseData.equalsIgnoreCase("null")) {
-                socket.close();
-                throw new IllegalStateException("Null received from swell server, syntax error in request.");
-            } else {
-                JSONParser parser = new JSONParser();
-                JSONObject jsonObject = (JSONObject) parser.parse(serverResponseData);
-                socket.close();
-                return JsonDataParser.parse(jsonObject.toJSONString());
+        } finally {
+            for (SwellCall call : calls) {
+                if (call.getType() != RequestType.GET) {
+                    cache.invalidate(call.getPath());
+                    memo.clear();
+                }
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Sends one window of pipelined calls over a borrowed connection and reads their responses.
+     */
+    private List<ApiDataObject> pipelineWindow(List<SwellCall> window, SwellPriority priority) {
+        // A window takes a single slot, and its round trip is not comparable to a single request's.
+        SwellCircuitBreaker.Ticket ticket = breaker.acquire();
+        SwellConcurrencyLimiter.Permit permit = admit(ticket, priority);
+        SwellSocket socket = borrow(ticket, permit);
+        List<ApiDataObject> responses = new ArrayList<>(window.size());
+        try {
+            for (SwellCall call : window) {
+                writeFrame(socket.frameWriter(), call);
+                socket.endFrame();
+            }
+            socket.flush();
+            for (int i = 0; i < window.size(); i++) {
+                ApiDataObject response = socket.readResponse();
+                breaker.onSuccess(ticket);
+                responses.add(requireResponse(response));
+            }
+        } catch (IllegalStateException | JsonDataParseException e) {
+            pool.invalidate(socket);
+            breaker.release(ticket);
+            throw e;
+        } catch (IOException e) {
+            pool.invalidate(socket);
+            breaker.onFailure(ticket);
+            permit.dropped();
+            // Pages are retried as a batch by the caller, see SwellPageFetcher.
+            throw new SwellUnavailableException("Issues while connecting to swell", e);
+        } finally {
+            permit.release();
+        }
+        pool.release(socket);
+        return responses;
+    }
+
+    /**
+     * Writes a request to the Swell Server via a SSL Socket pipeline request, retrying it when
+     * it fails to reach Swell and can safely be repeated.
+     *
+     * @param call     - The request being made.
+     * @param priority - The priority of the request.
+     * @return {@link ApiDataObject} - The response from the server.
+     */
+    private ApiDataObject writeRequest(SwellCall call, SwellPriority priority) {
+        return writeRequest(call, null, priority);
+    }
+
+    /**
+     * Writes a request as {@link #writeRequest(SwellCall, SwellPriority)} does, as one leg of a
+     * hedged request.
+     *
+     * @param call     - The request being made.
+     * @param leg      - The leg the request runs as, null when it is not hedged.
+     * @param priority - The priority of the request.
+     * @return {@link ApiDataObject} - The response from the server.
+     * @throws CancellationException when the leg was cancelled, another leg having answered.
+     */
+    private ApiDataObject writeRequest(SwellCall call, SwellHedger.Leg leg, SwellPriority priority) {
+        for (int attempt = 1; ; attempt++) {
+            if (leg != null && leg.isCancelled()) {
+                throw new CancellationException("Another swell request answered first");
+            }
+            rateLimiter.acquire(call.getType(), 1, priority);
+            // An open breaker fails the request, or its retry, straight away.
+            SwellCircuitBreaker.Ticket ticket = breaker.acquire();
+            SwellConcurrencyLimiter.Permit permit = admit(ticket, priority);
+            SwellSocket socket;
+            try {
+                socket = borrow(ticket, permit);
+            } catch (SwellUnavailableException e) {
+                // Nothing was sent, so even a non-idempotent request can be retried.
+                backOff(call, attempt, true, e);
+                continue;
+            }
+            if (leg != null && !leg.attach(socket)) {
+                pool.release(socket);
+                breaker.release(ticket);
+                permit.release();
+                throw new CancellationException("Another swell request answered first");
+            }
+            try {
+                log.info("Swell request: {} {}", call.getType(), call.getPath());
+                writeFrame(socket.frameWriter(), call);
+                socket.endFrame();
+                socket.flush();
+                ApiDataObject response = socket.readResponse();
+                breaker.onSuccess(ticket);
+                permit.success();
+                requireResponse(response);
+                log.debug("The response was: {}", response);
+                if (leg == null || leg.detach()) {
+                    pool.release(socket);
+                } else {
+                    pool.invalidate(socket);
+                }
+                return response;
+            } catch (IllegalStateException | JsonDataParseException e) {
+                pool.invalidate(socket);
+                breaker.release(ticket);
+                permit.release();
+                throw e;
+            } catch (IOException e) {
+                pool.invalidate(socket);
+                if (leg != null && leg.isCancelled()) {
+                    // Closed by the leg that answered first, which says nothing about Swell.
+                    breaker.release(ticket);
+                    permit.release();
+                    throw new CancellationException("Another swell request answered first");
+                }
+                breaker.onFailure(ticket);
+                permit.dropped();
+                backOff(call, attempt, call.getType().isIdempotent(), e);
             }
-        } catch (SocketException | SSLHandshakeException e) {
-            if (e.getMessage().equalsIgnoreCase("connection reset") || e.getMessage().equalsIgnoreCase("Remote host terminated the handshake")) {
-                return writeRequest(type, path, data);
+        }
+    }
+
+    /**
+     * Waits for the rate limit of a window of pipelined calls, reads and writes counted apart.
+     */
+    private void acquireRateLimit(List<SwellCall> window, SwellPriority priority) {
+        int reads = 0;
+        for (SwellCall call : window) {
+            if (call.getType() == RequestType.GET) {
+                reads++;
+            }
+        }
+        if (reads > 0) {
+            rateLimiter.acquire(RequestType.GET, reads, priority);
+        }
+        if (reads < window.size()) {
+            rateLimiter.acquire(RequestType.POST, window.size() - reads, priority);
+        }
+    }
+
+    /**
+     * Takes a concurrency slot for a request the circuit breaker let through.
+     *
+     * @return The concurrency slot of the request.
+     * @throws SwellUnavailableException when no slot freed up in time.
+     */
+    private SwellConcurrencyLimiter.Permit admit(SwellCircuitBreaker.Ticket ticket, SwellPriority priority) {
+        try {
+            return concurrencyLimiter.acquire(priority);
+        } catch (RuntimeException e) {
+            breaker.release(ticket);
+            throw e;
+        }
+    }
+
+    /**
+     * Borrows a connection for a request that was admitted.
+     *
+     * @throws SwellUnavailableException when no connection could be opened.
+     */
+    private SwellSocket borrow(SwellCircuitBreaker.Ticket ticket, SwellConcurrencyLimiter.Permit permit) {
+        try {
+            return pool.borrow();
+        } catch (SwellUnavailableException e) {
+            if (e.getCause() instanceof IOException) {
+                breaker.onFailure(ticket);
+                permit.dropped();
             } else {
-                throw new IllegalStateException("Request syntax error.", e);
+                // The pool ran out of connections, which says nothing about Swell.
+                breaker.release(ticket);
+                permit.release();
             }
-        } catch (IOException | ParseException e) {
-            throw new IllegalStateException("Issues while connecting to swell", e);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.release(ticket);
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits before the next attempt of a request that failed to reach Swell, with "full jitter"
+     * so callers that failed together do not retry together.
+     *
+     * @throws SwellUnavailableException when the request must not, or can no longer, be retried.
+     */
+    private void backOff(SwellCall call, int attempt, boolean retryable, Exception cause) {
+        if (!retryable || attempt >= config.getRetryMaxAttempts()) {
+            throw cause instanceof SwellUnavailableException
+                    ? (SwellUnavailableException) cause
+                    : new SwellUnavailableException("Issues while connecting to swell", cause);
         }
+        long delay = backOffMs(config, attempt);
+        log.warn("Swell request {} {} failed ({}), retrying in {}ms", call.getType(), call.getPath(), cause.getMessage(), delay);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwellUnavailableException("Interrupted while retrying a swell request", cause);
+        }
+    }
+
+    /**
+     * @param attempt - The attempt that failed, starting at 1.
+     * @return A random delay before the next attempt, up to a ceiling doubling with each attempt.
+     */
+    static long backOffMs(SwellConfig config, int attempt) {
+        long ceiling = Math.min(config.getRetryMaxBackoffMs(), config.getRetryBaseBackoffMs() << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Tells the circuit breaker and the concurrency limiter how a request over the non-blocking
+     * transport went.
+     */
+    private void recordOutcome(Throwable error, SwellCircuitBreaker.Ticket ticket, SwellConcurrencyLimiter.Permit permit) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null) {
+            breaker.onSuccess(ticket);
+            permit.success();
+        } else if (cause instanceof SwellUnavailableException || cause instanceof TimeoutException) {
+            breaker.onFailure(ticket);
+            permit.dropped();
+        } else {
+            breaker.release(ticket);
+            permit.release();
+        }
+    }
+
+    /**
+     * Builds the request frame for a call as a string, for the non-blocking transport.
+     */
+    private String frame(SwellCall call) {
+        StringBuilder frame = new StringBuilder();
+        try {
+            writeFrame(frame, call);
+        } catch (IOException e) {
+            // A StringBuilder never throws.
+            throw new UncheckedIOException(e);
+        }
+        return frame.toString();
+    }
+
+    /**
+     * Rejects the null response Swell sends back for a malformed request.
+     */
+    private static ApiDataObject requireResponse(ApiDataObject response) {
+        if (response == null) {
+            throw new IllegalStateException("Null received from swell server, syntax error in request.");
+        }
+        return response;
     }
 
     /**
@@ -148,6 +545,17 @@ public class SwellConnection {
         return request(RequestType.GET, path, null);
     }
 
+    /**
+     * Creates a GET request to an end-point at the given priority.
+     *
+     * @param path     - The end-point URL path.
+     * @param priority - BULK for requests that are part of a large job.
+     * @return {@link ApiDataObject} - A JSON response from the end-point.
+     */
+    public ApiDataObject get(String path, SwellPriority priority) {
+        return request(RequestType.GET, path, null, priority);
+    }
+
     /**
      * Creates a POST request to an end-point returning a JSON response.
      *
@@ -0,0 +1,206 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A bounded pool of persistent TLS connections to Swell.
+ * <p>
+ * Callers borrow a warm {@link SwellSocket}, make their request over it and hand it back
+ * with {@link #release(SwellSocket)}, or {@link #invalidate(SwellSocket)} when the socket
+ * failed. Idle sockets are health checked on borrow and retired once they pass their
+ * maximum lifetime or idle timeout.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellConnectionPool {
+    private static final long MAINTENANCE_INTERVAL_MS = 30_000;
+    private final SwellConfig config;
+    private final SSLSocketFactory socketFactory;
+    private final LinkedBlockingDeque<SwellSocket> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService maintenance;
+
+    public SwellConnectionPool(SwellConfig config) {
+        this.config = config;
+        this.socketFactory = createSocketFactory();
+        this.permits = new Semaphore(config.getPoolMaxTotal(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "swell-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinIdle();
+        if (!idle.isEmpty()) {
+            log.info("Successfully connected to swell with {} pooled connections", idle.size());
+        }
+        maintenance.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL_MS, MAINTENANCE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a healthy connection, opening a new one when no idle connection is available.
+     *
+     * @return A connection that must be given back with release or invalidate.
+     * @throws SwellUnavailableException when no connection frees up in time or none can be opened.
+     */
+    public SwellSocket borrow() {
+        try {
+            if (!permits.tryAcquire(config.getPoolBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SwellUnavailableException("Timed out waiting for a free swell connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwellUnavailableException("Interrupted while waiting for a swell connection.", e);
+        }
+        try {
+            SwellSocket socket;
+            while ((socket = idle.pollFirst()) != null) {
+                if (isHealthy(socket)) {
+                    return socket;
+                }
+                socket.close();
+            }
+            return establishConnection();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a connection back to the pool after a successful request.
+     *
+     * @param socket - The borrowed connection.
+     */
+    public void release(SwellSocket socket) {
+        if (isHealthy(socket) && idle.size() < config.getPoolMaxIdle()) {
+            idle.offerFirst(socket);
+        } else {
+            socket.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * Closes a borrowed connection that can no longer be trusted, i.e. after an I/O error.
+     *
+     * @param socket - The borrowed connection.
+     */
+    public void invalidate(SwellSocket socket) {
+        socket.close();
+        permits.release();
+    }
+
+    /**
+     * @return How many connections are currently sitting idle in the pool.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return How many connections are currently borrowed.
+     */
+    public int getActiveCount() {
+        return config.getPoolMaxTotal() - permits.availablePermits();
+    }
+
+    /**
+     * Constructs a new SSL Socket connection to Swell and completes the TLS handshake.
+     *
+     * @return A socket connection to the host and port.
+     */
+    private SwellSocket establishConnection() {
+        try {
+            SSLSocket socket = (SSLSocket) socketFactory.createSocket(InetAddress.getByName(config.getHost()), config.getPort());
+            SSLParameters sslParams = new SSLParameters();
+            sslParams.setEndpointIdentificationAlgorithm("HTTPS");
+            socket.setSSLParameters(sslParams);
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.setSoTimeout(config.getSocketTimeoutMs());
+            socket.startHandshake();
+            return new SwellSocket(socket);
+        } catch (IOException e) {
+            log.error("Failed to connect to swell.", e);
+            throw new SwellUnavailableException("Failed to connect to swell", e);
+        }
+    }
+
+    private boolean isHealthy(SwellSocket socket) {
+        return socket.isUsable(config.getPoolMaxLifetimeMs(), config.getPoolIdleTimeoutMs());
+    }
+
+    /**
+     * Retires expired idle connections and tops the pool back up to its minimum.
+     */
+    private void maintain() {
+        try {
+            int checked = idle.size();
+            for (int i = 0; i < checked; i++) {
+                SwellSocket socket = idle.pollLast();
+                if (socket == null) {
+                    break;
+                }
+                if (isHealthy(socket)) {
+                    idle.offerLast(socket);
+                } else {
+                    socket.close();
+                }
+            }
+            fillToMinIdle();
+        } catch (RuntimeException e) {
+            log.warn("Swell connection pool maintenance failed.", e);
+        }
+    }
+
+    private void fillToMinIdle() {
+        while (idle.size() < config.getPoolMinIdle() && permits.tryAcquire()) {
+            try {
+                idle.offerLast(establishConnection());
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static SSLSocketFactory createSocketFactory() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, new SecureRandom());
+            return sslContext.getSocketFactory();
+        } catch (KeyManagementException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to initialise the swell TLS context", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        SwellSocket socket;
+        while ((socket = idle.pollFirst()) != null) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A dedicated, bounded thread pool for asynchronous Swell work, so Swell calls never run on
+ * (or exhaust) the common fork-join pool. Tasks submitted while every thread is busy and the
+ * queue is full are rejected rather than queued without limit.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+public class SwellExecutor implements Executor {
+    private final ThreadPoolExecutor executor;
+
+    public SwellExecutor(SwellConfig config) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(config.getExecutorThreads(), config.getExecutorThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getExecutorQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "swell-async-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Runs a task on the Swell pool. A blocking Swell call run this way holds a pool thread
+     * until Swell answers; a single request that needs neither the cache nor retries can use
+     * {@link SwellConnection#requestAsync} instead.
+     *
+     * @param task - The task, checked exceptions are rethrown wrapped in a {@link CompletionException}.
+     * @return A future completed with the result of the task.
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
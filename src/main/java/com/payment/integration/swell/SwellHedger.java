@@ -0,0 +1,247 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import com.payment.util.ApiDataObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+
+/**
+ * Hedges GETs that are slower than most: when the first request has not answered after the
+ * {@code api.swell.hedge.percentile} of recent GET latencies, a second one is sent on another
+ * connection. The first answer wins and the other request is cancelled by closing its socket.
+ * <p>
+ * Hedging only pays off against the occasional slow response, so hedges are capped at
+ * {@code api.swell.hedge.budgetPercent} of the GETs made: each GET earns that fraction of a
+ * hedge, and at most {@value #MAX_SAVED_HEDGES} hedges can be saved up. No GET is hedged until
+ * {@value #MIN_SAMPLES} latencies have been seen. Hedging is off unless
+ * {@code api.swell.hedge.enabled} is set.
+ * <p>
+ * The first request runs on the calling thread and the hedge on the {@link SwellExecutor}, so
+ * a GET that answers in time costs no extra thread.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellHedger {
+    static final int MIN_SAMPLES = 20;
+    static final int MAX_SAVED_HEDGES = 10;
+    // How many latencies are recorded between two computations of the percentile.
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final SwellExecutor executor;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double budgetPerRequest;
+    private final long[] latencies;
+    private int recorded;
+    private int sinceComputed;
+    private long delayNanos = -1;
+    private double budget;
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+
+    public SwellHedger(SwellConfig config, SwellExecutor executor) {
+        this.executor = executor;
+        this.enabled = config.isHedgeEnabled();
+        this.percentile = Math.max(0, Math.min(100, config.getHedgePercentile()));
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.getHedgeMinDelayMs());
+        this.budgetPerRequest = Math.max(0, config.getHedgeBudgetPercent()) / 100;
+        this.latencies = new long[Math.max(MIN_SAMPLES, config.getHedgeSamples())];
+    }
+
+    /**
+     * Makes a request, hedging it when it is slow.
+     *
+     * @param request - Makes the request once. It is given the leg it runs as, null when the
+     *                request is not hedged, and must stop when the leg is cancelled.
+     * @return The first response.
+     */
+    public ApiDataObject execute(Function<Leg, ApiDataObject> request) {
+        if (!enabled) {
+            return request.apply(null);
+        }
+        long delay = delay();
+        if (delay < 0) {
+            return timed(request, null);
+        }
+        Leg primary = new Leg();
+        Leg hedge = new Leg();
+        CompletableFuture<ApiDataObject> hedged = new CompletableFuture<>();
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor)
+                .execute(() -> hedge(request, primary, hedge, hedged));
+        ApiDataObject response;
+        try {
+            response = timed(request, primary);
+        } catch (RuntimeException e) {
+            if (hedge.cancelUnlessStarted()) {
+                throw e;
+            }
+            // Cancelled by the hedge that answered first, or failed with the hedge still to answer.
+            return await(hedged, e);
+        }
+        hedge.cancel();
+        return response;
+    }
+
+    private void hedge(Function<Leg, ApiDataObject> request, Leg primary, Leg hedge, CompletableFuture<ApiDataObject> hedged) {
+        if (!hedge.start()) {
+            return;
+        }
+        if (!takeHedge()) {
+            hedged.cancel(false);
+            return;
+        }
+        log.info("Hedging a slow swell request");
+        try {
+            ApiDataObject response = timed(request, hedge);
+            if (hedged.complete(response)) {
+                hedgeWon();
+                primary.cancel();
+            }
+        } catch (RuntimeException | Error e) {
+            hedged.completeExceptionally(e);
+        }
+    }
+
+    private static ApiDataObject await(CompletableFuture<ApiDataObject> hedged, RuntimeException primaryError) {
+        try {
+            return hedged.get();
+        } catch (CancellationException e) {
+            // No budget was left for the hedge.
+            throw primaryError;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : primaryError;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwellUnavailableException("Interrupted while waiting for swell", e);
+        }
+    }
+
+    private ApiDataObject timed(Function<Leg, ApiDataObject> request, Leg leg) {
+        long startedAt = System.nanoTime();
+        ApiDataObject response = request.apply(leg);
+        record(System.nanoTime() - startedAt);
+        return response;
+    }
+
+    /**
+     * Counts a request towards the hedge budget.
+     *
+     * @return How long to wait before hedging it, in nanoseconds, or -1 while too few
+     * latencies have been seen.
+     */
+    private synchronized long delay() {
+        requests++;
+        budget = Math.min(MAX_SAVED_HEDGES, budget + budgetPerRequest);
+        return delayNanos;
+    }
+
+    private synchronized boolean takeHedge() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        hedges++;
+        return true;
+    }
+
+    private synchronized void hedgeWon() {
+        hedgeWins++;
+    }
+
+    synchronized void record(long latencyNanos) {
+        latencies[recorded++ % latencies.length] = latencyNanos;
+        if (recorded >= MIN_SAMPLES && (delayNanos < 0 || ++sinceComputed >= RECOMPUTE_EVERY)) {
+            sinceComputed = 0;
+            long[] sorted = Arrays.copyOf(latencies, Math.min(recorded, latencies.length));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+        }
+    }
+
+    /**
+     * @return Whether hedging is on, the current hedge delay and how many GETs were hedged.
+     */
+    public synchronized ApiDataObject stats() {
+        return new ApiDataObject()
+                .put("enabled", enabled)
+                .put("delayMs", delayNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos))
+                .put("requests", requests)
+                .put("hedges", hedges)
+                .put("hedgeWins", hedgeWins);
+    }
+
+    /**
+     * One of the requests racing for the same response. Cancelling it closes the connection it
+     * is waiting on, so a blocking read gives up at once.
+     */
+    public static final class Leg {
+        private boolean started;
+        private boolean cancelled;
+        private SwellSocket socket;
+
+        synchronized boolean start() {
+            if (cancelled) {
+                return false;
+            }
+            started = true;
+            return true;
+        }
+
+        synchronized boolean cancelUnlessStarted() {
+            if (started) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (socket != null) {
+                socket.close();
+                socket = null;
+            }
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Registers the connection the request is sent on, so cancelling can close it.
+         *
+         * @return false when the leg was already cancelled.
+         */
+        synchronized boolean attach(SwellSocket socket) {
+            if (cancelled) {
+                return false;
+            }
+            this.socket = socket;
+            return true;
+        }
+
+        /**
+         * Unregisters the connection once the response is read.
+         *
+         * @return false when the leg was cancelled meanwhile, its connection closed.
+         */
+        synchronized boolean detach() {
+            socket = null;
+            return !cancelled;
+        }
+    }
+}
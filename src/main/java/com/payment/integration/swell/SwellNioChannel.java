@@ -0,0 +1,324 @@
+package com.payment.integration.swell;
+
+import com.payment.exception.classes.SwellUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLParameters;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * A single non-blocking TLS connection to Swell driven by a selector thread.
+ * <p>
+ * Swell answers requests on a connection strictly in order, one line per request, so many
+ * requests can be in flight on the same channel at once: each written frame queues a future
+ * and every response line completes the oldest one. All socket and {@link SSLEngine} work
+ * happens on the owning selector thread; other threads only enqueue frames.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Slf4j
+class SwellNioChannel {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    private final SSLContext sslContext;
+    private final String host;
+    private final int port;
+    private final Selector selector;
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private final Queue<CompletableFuture<String>> pending = new ArrayDeque<>();
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private SocketChannel channel;
+    private SelectionKey key;
+    private SSLEngine engine;
+    private ByteBuffer netIn;
+    private ByteBuffer netOut;
+    private ByteBuffer appIn;
+    private boolean ready;
+
+    SwellNioChannel(SSLContext sslContext, String host, int port, Selector selector) {
+        this.sslContext = sslContext;
+        this.host = host;
+        this.port = port;
+        this.selector = selector;
+    }
+
+    /**
+     * Queues a request frame. Called from any thread; the frame is written by the selector thread.
+     *
+     * @param frame  - The UTF-8 encoded frame, including the trailing new line.
+     * @param result - Completed with the response line for this frame.
+     */
+    synchronized void enqueue(byte[] frame, CompletableFuture<String> result) {
+        pending.add(result);
+        outbound.add(ByteBuffer.wrap(frame));
+    }
+
+    /**
+     * Flushes queued frames, connecting first when the channel is not open. Selector thread only.
+     */
+    void flushQueued() {
+        try {
+            if (channel == null) {
+                connect();
+            } else if (ready) {
+                drive();
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Handles a selector event for this channel. Selector thread only.
+     */
+    void handle(SelectionKey selected) {
+        try {
+            if (selected.isConnectable()) {
+                if (channel.finishConnect()) {
+                    onConnected();
+                }
+                return;
+            }
+            if (selected.isReadable() && channel.read(netIn) < 0) {
+                throw new IOException("Swell closed the connection.");
+            }
+            drive();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Fails every request in flight and closes the channel, so the next request reconnects.
+     */
+    void fail(Throwable cause) {
+        close();
+        IllegalStateException error = new SwellUnavailableException("Issues while connecting to swell", cause);
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                log.warn("Swell NIO connection failed with {} requests in flight: {}", pending.size(), cause.getMessage());
+            }
+            outbound.clear();
+            CompletableFuture<String> future;
+            while ((future = pending.poll()) != null) {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Fails the channel when a request timed out while still waiting for its response, as
+     * Swell's late answer would otherwise complete the request behind it. Selector thread only.
+     *
+     * @param result    - The future of the request that timed out.
+     * @param timeoutMs - How long it waited.
+     */
+    void timedOut(CompletableFuture<String> result, long timeoutMs) {
+        boolean waiting;
+        synchronized (this) {
+            waiting = pending.contains(result);
+        }
+        if (waiting) {
+            fail(new TimeoutException("Swell did not answer within " + timeoutMs + "ms"));
+        }
+    }
+
+    void close() {
+        ready = false;
+        line.reset();
+        if (key != null) {
+            key.cancel();
+            key = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The channel is being discarded, nothing more to do.
+            }
+            channel = null;
+        }
+    }
+
+    private void connect() throws IOException {
+        engine = sslContext.createSSLEngine(host, port);
+        engine.setUseClientMode(true);
+        SSLParameters sslParams = engine.getSSLParameters();
+        sslParams.setEndpointIdentificationAlgorithm("HTTPS");
+        engine.setSSLParameters(sslParams);
+        netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        netOut.flip();
+        appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+        key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+        if (channel.connect(new InetSocketAddress(host, port))) {
+            onConnected();
+        }
+    }
+
+    private void onConnected() throws IOException {
+        engine.beginHandshake();
+        ready = true;
+        drive();
+    }
+
+    /**
+     * Pushes the TLS state machine as far as it can go without blocking: runs the handshake,
+     * encrypts queued frames, decrypts received records and completes finished responses.
+     */
+    private void drive() throws IOException {
+        while (true) {
+            flushNetOut();
+            if (netOut.hasRemaining()) {
+                break;
+            }
+            HandshakeStatus status = engine.getHandshakeStatus();
+            if (status == HandshakeStatus.NEED_TASK) {
+                Runnable task;
+                while ((task = engine.getDelegatedTask()) != null) {
+                    task.run();
+                }
+                continue;
+            }
+            if (status == HandshakeStatus.NEED_WRAP) {
+                if (!wrap(EMPTY)) {
+                    break;
+                }
+                continue;
+            }
+            if (status == HandshakeStatus.NOT_HANDSHAKING) {
+                ByteBuffer frame = nextFrame();
+                if (frame != null) {
+                    if (!wrap(frame)) {
+                        break;
+                    }
+                    continue;
+                }
+            }
+            if (!unwrap()) {
+                break;
+            }
+        }
+        key.interestOps(SelectionKey.OP_READ | (netOut.hasRemaining() ? SelectionKey.OP_WRITE : 0));
+    }
+
+    private synchronized ByteBuffer nextFrame() {
+        ByteBuffer frame = outbound.peek();
+        while (frame != null && !frame.hasRemaining()) {
+            outbound.poll();
+            frame = outbound.peek();
+        }
+        return frame;
+    }
+
+    /**
+     * Encrypts from the source into the (empty) outbound network buffer.
+     *
+     * @return Whether the engine made any progress.
+     */
+    private boolean wrap(ByteBuffer source) throws IOException {
+        netOut.clear();
+        SSLEngineResult result = engine.wrap(source, netOut);
+        netOut.flip();
+        switch (result.getStatus()) {
+            case OK:
+                return result.bytesProduced() > 0 || result.bytesConsumed() > 0;
+            case BUFFER_OVERFLOW:
+                netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize() + netOut.capacity());
+                netOut.flip();
+                return true;
+            default:
+                throw new IOException("Swell TLS session closed while writing.");
+        }
+    }
+
+    /**
+     * Decrypts buffered network data and hands any plain text to the line reader.
+     *
+     * @return Whether the engine made any progress.
+     */
+    private boolean unwrap() throws IOException {
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+            result = engine.unwrap(netIn, appIn);
+        } finally {
+            netIn.compact();
+        }
+        switch (result.getStatus()) {
+            case OK:
+                readLines();
+                return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+            case BUFFER_UNDERFLOW:
+                if (!netIn.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(netIn.capacity() + engine.getSession().getPacketBufferSize());
+                    netIn.flip();
+                    larger.put(netIn);
+                    netIn = larger;
+                }
+                return false;
+            case BUFFER_OVERFLOW:
+                readLines();
+                if (appIn.capacity() < engine.getSession().getApplicationBufferSize()) {
+                    appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+                }
+                return true;
+            default:
+                throw new IOException("Swell TLS session closed while reading.");
+        }
+    }
+
+    /**
+     * Moves decrypted bytes into the current line and completes a request for every full line.
+     */
+    private void readLines() {
+        appIn.flip();
+        while (appIn.hasRemaining()) {
+            byte next = appIn.get();
+            if (next != '\n') {
+                line.write(next);
+                continue;
+            }
+            String response = new String(line.toByteArray(), StandardCharsets.UTF_8);
+            line.reset();
+            CompletableFuture<String> future;
+            synchronized (this) {
+                future = pending.poll();
+            }
+            if (future == null) {
+                log.warn("Received an unexpected response from swell: {}", response);
+            } else {
+                future.complete(response);
+            }
+        }
+        appIn.clear();
+    }
+
+    private void flushNetOut() throws IOException {
+        while (netOut.hasRemaining()) {
+            if (channel.write(netOut) == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A non-blocking transport to Swell built on {@link java.nio.channels.SocketChannel} and
+ * {@link javax.net.ssl.SSLEngine}.
+ * <p>
+ * A few selector threads each drive a handful of persistent channels, and requests are
+ * spread over the channels round robin. Because responses on a channel arrive in order,
+ * any number of requests can be in flight at once without holding a thread per request.
+ * Channels connect lazily on their first request.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellNioTransport {
+    private final SelectorLoop[] loops;
+    private final SwellNioChannel[] channels;
+    private final SelectorLoop[] channelLoops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public SwellNioTransport(SwellConfig config) {
+        this(config, createSslContext());
+    }
+
+    SwellNioTransport(SwellConfig config, SSLContext sslContext) {
+        this.loops = new SelectorLoop[Math.max(1, config.getNioSelectorThreads())];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new SelectorLoop("swell-nio-" + i);
+        }
+        int connections = Math.max(1, config.getNioConnections());
+        this.channels = new SwellNioChannel[connections];
+        this.channelLoops = new SelectorLoop[connections];
+        for (int i = 0; i < connections; i++) {
+            channelLoops[i] = loops[i % loops.length];
+            channels[i] = new SwellNioChannel(sslContext, config.getHost(), config.getPort(), channelLoops[i].selector);
+        }
+    }
+
+    /**
+     * Sends a request frame without blocking the caller.
+     *
+     * @param frame - The request frame, without the trailing new line.
+     * @return A future completed with the raw response line.
+     */
+    public CompletableFuture<String> send(String frame) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        int index = Math.floorMod(next.getAndIncrement(), channels.length);
+        SwellNioChannel channel = channels[index];
+        channel.enqueue((frame + "\n").getBytes(StandardCharsets.UTF_8), result);
+        channelLoops[index].execute(channel::flushQueued);
+        return result;
+    }
+
+    /**
+     * Sends a request frame without blocking the caller, giving up when Swell does not answer
+     * in time. A request that timed out would take the next response on its channel, so the
+     * channel is closed, failing every other request in flight on it, and reconnects on its
+     * next request.
+     *
+     * @param frame     - The request frame, without the trailing new line.
+     * @param timeoutMs - How long to wait for the response.
+     * @return A future completed with the raw response line, or with a {@link TimeoutException}.
+     */
+    public CompletableFuture<String> send(String frame, long timeoutMs) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        int index = Math.floorMod(next.getAndIncrement(), channels.length);
+        SwellNioChannel channel = channels[index];
+        SelectorLoop loop = channelLoops[index];
+        channel.enqueue((frame + "\n").getBytes(StandardCharsets.UTF_8), result);
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            if (error instanceof TimeoutException) {
+                loop.execute(() -> channel.timedOut(result, timeoutMs));
+            }
+        });
+        loop.execute(channel::flushQueued);
+        return result;
+    }
+
+    private static SSLContext createSslContext() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, null, new SecureRandom());
+            return sslContext;
+        } catch (KeyManagementException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to initialise the swell TLS context", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (int i = 0; i < channels.length; i++) {
+            SwellNioChannel channel = channels[i];
+            channelLoops[i].execute(() -> channel.fail(new IllegalStateException("Swell transport shut down.")));
+        }
+        for (SelectorLoop loop : loops) {
+            loop.stop();
+        }
+    }
+
+
+    /**
+     * A selector thread that runs queued tasks and dispatches channel events.
+     */
+    private static class SelectorLoop implements Runnable {
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        SelectorLoop(String name) {
+            try {
+                this.selector = Selector.open();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open a selector for swell", e);
+            }
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) {
+                        task.run();
+                    }
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        if (key.isValid()) {
+                            ((SwellNioChannel) key.attachment()).handle(key);
+                        }
+                    }
+                    selector.selectedKeys().clear();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Swell selector loop error.", e);
+                }
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down, nothing more to do.
+            }
+        }
+    }
+}
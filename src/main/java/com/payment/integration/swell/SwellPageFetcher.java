@@ -0,0 +1,263 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import com.payment.util.RequestType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * Fetches every record of a Swell collection page by page.
+ * <p>
+ * Pages are requested in pipelined batches of {@link SwellConnection#MAX_PIPELINE_DEPTH} on a
+ * single shared pool, so no matter how many pages or concurrent exports there are, at most
+ * {@code api.swell.pages.parallelism} batches are in flight. A failed batch is retried after
+ * the same jittered backoff as a single request, and when it keeps failing, or the whole
+ * fetch runs past its timeout, the remaining batches are cancelled and the fetch fails
+ * instead of returning a partial result.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellPageFetcher {
+    private static final String DATA_FIELD = "$data";
+    private static final int DEFAULT_LIMIT = 25;
+
+    private final SwellConfig config;
+    private final SwellConnection connection;
+    private final ExecutorService pagePool;
+    private final int retries;
+    private final int prefetch;
+    private final long timeoutMs;
+
+    public SwellPageFetcher(SwellConfig config, SwellConnection connection) {
+        this.config = config;
+        this.connection = connection;
+        this.retries = config.getPageRetries();
+        this.prefetch = config.getPagePrefetch();
+        this.timeoutMs = config.getPageTimeoutMs();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pagePool = Executors.newFixedThreadPool(config.getPageParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "swell-pages-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetches every record of a collection.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param limit      - The amount of records per page, capped at {@link SwellConfig#FETCH_LIMIT}.
+     * @return The records, in page order.
+     * @throws IllegalStateException when a page could not be fetched or the fetch timed out.
+     */
+    public List<ApiDataObject> fetchAll(String collection, int limit) throws InterruptedException {
+        limit = pageLimit(limit);
+        long count = count(collection, null, SwellPriority.BULK);
+        int pages = pageCount(count, limit);
+        log.info("Fetching {} records of {} in {} pages", count, collection, pages);
+
+        List<Future<List<ApiDataObject>>> batches = new ArrayList<>();
+        for (int first = 1; first <= pages; first += SwellConnection.MAX_PIPELINE_DEPTH) {
+            int firstPage = first;
+            int lastPage = Math.min(first + SwellConnection.MAX_PIPELINE_DEPTH - 1, pages);
+            int pageLimit = limit;
+            batches.add(pagePool.submit(() -> fetchPages(collection, null, pageLimit, firstPage, lastPage)));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<ApiDataObject> records = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+        try {
+            // Waiting on the batches in submission order keeps the records in page order.
+            for (Future<List<ApiDataObject>> batch : batches) {
+                records.addAll(batch.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+            }
+        } catch (ExecutionException e) {
+            cancel(batches);
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalStateException) {
+                throw (IllegalStateException) cause;
+            }
+            throw new IllegalStateException("Failed to fetch " + collection + " from swell", cause);
+        } catch (TimeoutException e) {
+            cancel(batches);
+            throw new IllegalStateException("Timed out fetching " + collection + " from swell after " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            cancel(batches);
+            throw e;
+        }
+        log.info("Fetched {} records of {}", records.size(), collection);
+        return records;
+    }
+
+    /**
+     * Walks a collection lazily, page by page, fetching at most {@code api.swell.pages.prefetch}
+     * pages ahead of the consumer.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param limit      - The amount of records per page, capped at {@link SwellConfig#FETCH_LIMIT}.
+     * @return The pages, which must be closed when not drained.
+     */
+    public SwellPageIterator pages(String collection, int limit) {
+        return pages(collection, limit, null);
+    }
+
+    /**
+     * Walks the records of a collection matching a query lazily, see {@link #pages(String, int)}.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param limit      - The amount of records per page, capped at {@link SwellConfig#FETCH_LIMIT}.
+     * @param query      - The query sent as the body of every page request, e.g. a "where" and "sort", or null.
+     * @return The pages, which must be closed when not drained.
+     */
+    public SwellPageIterator pages(String collection, int limit, ApiDataObject query) {
+        int pageLimit = pageLimit(limit);
+        int pages = pageCount(count(collection, query, SwellPriority.BULK), pageLimit);
+        return new SwellPageIterator(collection, pages, prefetch, timeoutMs,
+                page -> pagePool.submit(() -> fetchPages(collection, query, pageLimit, page, page)));
+    }
+
+    /**
+     * Streams the records of a collection lazily, see {@link #pages(String, int)}. The stream
+     * must be closed, e.g. with try-with-resources, when it is not consumed to the end.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param limit      - The amount of records per page, capped at {@link SwellConfig#FETCH_LIMIT}.
+     * @return The records, in page order.
+     */
+    public Stream<ApiDataObject> stream(String collection, int limit) {
+        SwellPageIterator pages = pages(collection, limit);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(pages::close);
+    }
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @return How many records the collection holds.
+     */
+    public long count(String collection) {
+        return count(collection, null);
+    }
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param query      - The query the records must match, or null for every record.
+     * @return How many records of the collection match the query.
+     */
+    public long count(String collection, ApiDataObject query) {
+        return count(collection, query, SwellPriority.INTERACTIVE);
+    }
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param query      - The query the records must match, or null for every record.
+     * @param priority   - BULK when counting for a fetch of the whole collection.
+     * @return How many records of the collection match the query.
+     */
+    long count(String collection, ApiDataObject query, SwellPriority priority) {
+        String path = collection + "?limit=1";
+        ApiDataObject countQuery = query == null ? connection.get(path, priority) : connection.request(RequestType.GET, path, query, priority);
+        ApiDataObject data = countQuery.getDataObject(DATA_FIELD);
+        if (data == null || !(data.get("count") instanceof Number)) {
+            throw new IllegalStateException("Swell returned no count for " + collection);
+        }
+        return ((Number) data.get("count")).longValue();
+    }
+
+    /**
+     * Fetches a range of pages in one pipelined batch, retrying the batch when it fails.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param query      - The query sent as the body of every page request, or null.
+     * @param limit      - The amount of records per page.
+     * @param firstPage  - The first page, starting at 1.
+     * @param lastPage   - The last page, inclusive.
+     * @return The records of the pages, in page order.
+     */
+    List<ApiDataObject> fetchPages(String collection, ApiDataObject query, int limit, int firstPage, int lastPage) {
+        List<SwellCall> calls = new ArrayList<>();
+        for (int page = firstPage; page <= lastPage; page++) {
+            calls.add(SwellCall.of(RequestType.GET, collection + "?limit=" + limit + "&page=" + page, query));
+        }
+        for (int attempt = 0; ; attempt++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Fetching " + collection + " was cancelled");
+            }
+            try {
+                List<ApiDataObject> records = new ArrayList<>();
+                for (ApiDataObject page : connection.pipeline(calls, SwellPriority.BULK)) {
+                    records.addAll(results(page));
+                }
+                return records;
+            } catch (IllegalStateException e) {
+                if (attempt >= retries) {
+                    throw e;
+                }
+                long delay = SwellConnection.backOffMs(config, attempt + 1);
+                log.warn("Retrying pages {}-{} of {} in {}ms: {}", firstPage, lastPage, collection, delay, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Fetching " + collection + " was cancelled", interrupted);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The page limit capped at {@link SwellConfig#FETCH_LIMIT}, or the default for non positive limits.
+     */
+    public static int pageLimit(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, SwellConfig.FETCH_LIMIT);
+    }
+
+    /**
+     * @return How many pages of the limit hold the amount of records.
+     */
+    public static int pageCount(long count, int limit) {
+        return (int) ((count + limit - 1) / limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ApiDataObject> results(ApiDataObject page) {
+        ApiDataObject data = page.getDataObject(DATA_FIELD);
+        if (data == null || !(data.get("results") instanceof List)) {
+            throw new IllegalStateException("Swell returned a page without results: " + page);
+        }
+        return (List<ApiDataObject>) data.get("results");
+    }
+
+    private static void cancel(List<Future<List<ApiDataObject>>> batches) {
+        for (Future<List<ApiDataObject>> batch : batches) {
+            batch.cancel(true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pagePool.shutdownNow();
+    }
+}
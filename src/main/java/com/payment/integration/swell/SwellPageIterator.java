@@ -0,0 +1,106 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+
+
+/**
+ * Lazily walks the pages of a Swell collection, one page per {@link #next()}.
+ * <p>
+ * At most {@code prefetch} pages are requested ahead of the page being consumed, so a slow
+ * consumer holds back the fetching and memory stays bounded by a few pages whatever the size
+ * of the collection. The iterator must be closed when it is not drained, so pages fetched
+ * ahead are cancelled.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public class SwellPageIterator implements Iterator<List<ApiDataObject>>, AutoCloseable {
+    private final String collection;
+    private final int pages;
+    private final int prefetch;
+    private final long timeoutMs;
+    private final IntFunction<Future<List<ApiDataObject>>> fetchPage;
+    private final ArrayDeque<Future<List<ApiDataObject>>> ahead = new ArrayDeque<>();
+    private int nextToFetch = 1;
+    private int nextToReturn = 1;
+    private boolean closed;
+
+    /**
+     * @param collection - The collection path, for error messages.
+     * @param pages      - How many pages the collection holds.
+     * @param prefetch   - How many pages may be fetched ahead of the consumer, at least 1.
+     * @param timeoutMs  - How long to wait for a single page, in milliseconds.
+     * @param fetchPage  - Starts fetching the page with the given number.
+     */
+    SwellPageIterator(String collection, int pages, int prefetch, long timeoutMs, IntFunction<Future<List<ApiDataObject>>> fetchPage) {
+        this.collection = collection;
+        this.pages = pages;
+        this.prefetch = Math.max(1, prefetch);
+        this.timeoutMs = timeoutMs;
+        this.fetchPage = fetchPage;
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return !closed && nextToReturn <= pages;
+    }
+
+    /**
+     * @return The records of the next page, waiting for it to arrive when needed.
+     * @throws IllegalStateException when the page could not be fetched.
+     */
+    @Override
+    public synchronized List<ApiDataObject> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fillWindow();
+        Future<List<ApiDataObject>> page = ahead.poll();
+        nextToReturn++;
+        try {
+            List<ApiDataObject> records = page.get(timeoutMs, TimeUnit.MILLISECONDS);
+            fillWindow();
+            return records;
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof IllegalStateException) {
+                throw (IllegalStateException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to fetch " + collection + " from swell", e.getCause());
+        } catch (TimeoutException e) {
+            close();
+            throw new IllegalStateException("Timed out fetching " + collection + " from swell after " + timeoutMs + "ms");
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fetching " + collection + " was interrupted", e);
+        }
+    }
+
+    /**
+     * Cancels every page fetched ahead.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Future<List<ApiDataObject>> page : ahead) {
+            page.cancel(true);
+        }
+        ahead.clear();
+    }
+
+    private void fillWindow() {
+        while (ahead.size() < prefetch && nextToFetch <= pages) {
+            ahead.add(fetchPage.apply(nextToFetch++));
+        }
+    }
+}
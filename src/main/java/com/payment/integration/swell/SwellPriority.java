@@ -0,0 +1,21 @@
+package com.payment.integration.swell;
+
+
+/**
+ * How urgently a request to Swell is needed, deciding who gets Swell's capacity first.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public enum SwellPriority {
+
+    /**
+     * A customer is waiting on the answer, e.g. an account lookup for a verification.
+     */
+    INTERACTIVE,
+
+    /**
+     * Part of a large job nobody waits on request by request, e.g. paging a whole collection
+     * for a sync or an export. Only uses the capacity interactive requests leave.
+     */
+    BULK
+}
@@ -0,0 +1,162 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import com.payment.util.RequestType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Keeps the requests sent to Swell under its API quota, with a token bucket for reads and
+ * another for writes so bulk reads cannot starve writes.
+ * <p>
+ * A bucket holds up to {@code burst} tokens and gains {@code perSecond} tokens a second.
+ * Every request sent takes a token; a caller finding the bucket empty reserves the next token
+ * and waits for it, so callers are served in the order they arrived. A caller that would wait
+ * longer than {@code api.swell.rateLimit.queueTimeoutMs} is turned away with a
+ * {@link SwellUnavailableException} instead. Responses served from a cache never take a token.
+ * <p>
+ * {@link SwellPriority#BULK} callers never reserve ahead: they wait until the tokens are
+ * actually in the bucket, so interactive callers arriving meanwhile are served first.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellRateLimiter {
+    private final TokenBucket reads;
+    private final TokenBucket writes;
+    private final long queueTimeoutNanos;
+    private final long bulkTimeoutNanos;
+
+    public SwellRateLimiter(SwellConfig config) {
+        this.reads = new TokenBucket(config.getRateLimitReadsPerSecond(), config.getRateLimitReadsBurst());
+        this.writes = new TokenBucket(config.getRateLimitWritesPerSecond(), config.getRateLimitWritesBurst());
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getRateLimitQueueTimeoutMs());
+        this.bulkTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getPriorityBulkTimeoutMs());
+    }
+
+    /**
+     * Waits until a request of the type may be sent.
+     *
+     * @param type     - The type of the request.
+     * @param permits  - How many requests are sent, e.g. the size of a pipelined batch.
+     * @param priority - The priority of the request.
+     * @throws SwellUnavailableException when the wait would exceed the queue timeout.
+     */
+    public void acquire(RequestType type, int permits, SwellPriority priority) {
+        if (priority != SwellPriority.BULK) {
+            sleep(reserve(type, permits));
+            return;
+        }
+        TokenBucket bucket = bucket(type);
+        long deadline = System.nanoTime() + bulkTimeoutNanos;
+        while (true) {
+            long now = System.nanoTime();
+            long waitNanos = bucket.take(permits, now);
+            if (waitNanos == 0) {
+                return;
+            }
+            if (now + waitNanos > deadline) {
+                throw new SwellUnavailableException("Too many requests to swell, please try again shortly.");
+            }
+            sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Reserves the right to send requests without waiting for it, for callers that must not block.
+     *
+     * @param type    - The type of the request.
+     * @param permits - How many requests are sent.
+     * @return How long to wait before sending, in nanoseconds.
+     * @throws SwellUnavailableException when the wait would exceed the queue timeout.
+     */
+    public long reserve(RequestType type, int permits) {
+        long waitNanos = bucket(type).reserve(permits, System.nanoTime(), queueTimeoutNanos);
+        if (waitNanos < 0) {
+            log.warn("Rejecting a swell {} request, the {} quota is exhausted", type, type == RequestType.GET ? "read" : "write");
+            throw new SwellUnavailableException("Too many requests to swell, please try again shortly.");
+        }
+        return waitNanos;
+    }
+
+    private TokenBucket bucket(RequestType type) {
+        return type == RequestType.GET ? reads : writes;
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwellUnavailableException("Interrupted while waiting to call swell", e);
+        }
+    }
+
+    /**
+     * A token bucket that lends tokens ahead of time, the balance going negative while callers
+     * wait for their reserved tokens to refill.
+     */
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double burst;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double perSecond, int burst) {
+            this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = Math.max(1, burst);
+            this.tokens = this.burst;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * @return How long to wait for the tokens, or -1 when that is longer than the timeout and
+         * nothing was reserved.
+         */
+        synchronized long reserve(int permits, long now, long timeoutNanos) {
+            if (tokensPerNano <= 0) {
+                // A limit of zero turns the bucket off.
+                return 0;
+            }
+            refill(now);
+            long waitNanos = tokens >= permits ? 0 : (long) Math.ceil((permits - tokens) / tokensPerNano);
+            if (waitNanos > timeoutNanos) {
+                return -1;
+            }
+            tokens -= permits;
+            return waitNanos;
+        }
+
+        /**
+         * Takes the tokens only if they are in the bucket, without lending them. More tokens
+         * than the burst are taken once the bucket is full.
+         *
+         * @return 0 when the tokens were taken, or roughly how long until they are there.
+         */
+        synchronized long take(int permits, long now) {
+            if (tokensPerNano <= 0) {
+                return 0;
+            }
+            refill(now);
+            double needed = Math.min(permits, burst);
+            if (tokens >= needed) {
+                tokens -= permits;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((needed - tokens) / tokensPerNano));
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
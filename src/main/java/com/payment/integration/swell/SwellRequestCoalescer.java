@@ -0,0 +1,79 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+
+/**
+ * Collapses identical requests that are in flight at the same time into a single upstream
+ * call (single-flight). The first caller makes the request and every caller that arrives
+ * before it finishes waits for, and receives a copy of, the same response.
+ * <p>
+ * Unlike the {@link SwellResponseCache} nothing is kept once the request finishes, so this
+ * adds no staleness.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+public class SwellRequestCoalescer {
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the request, or joins an identical one that is already running.
+     *
+     * @param key     - Identifies identical requests, i.e. the GET path.
+     * @param request - Makes the upstream call.
+     * @return The response, copied for every caller that shared it.
+     */
+    public ApiDataObject execute(String key, Supplier<ApiDataObject> request) {
+        Flight created = new Flight();
+        Flight flight = inFlight.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return created;
+            }
+            existing.followers++;
+            return existing;
+        });
+        if (flight != created) {
+            return await(flight).deepCopy();
+        }
+        try {
+            ApiDataObject response = request.get();
+            inFlight.remove(key, flight);
+            flight.result.complete(response);
+            // No follower can join once the flight is removed, so the count is final here.
+            return flight.followers > 0 && response != null ? response.deepCopy() : response;
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static ApiDataObject await(Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a swell response.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+
+    private static class Flight {
+        private final CompletableFuture<ApiDataObject> result = new CompletableFuture<>();
+        // Only changed inside ConcurrentHashMap.compute, which serialises access per key.
+        private int followers;
+    }
+}
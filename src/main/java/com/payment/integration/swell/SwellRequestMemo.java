@@ -0,0 +1,70 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Remembers the Swell GET responses of the current HTTP request, so a path fetched twice
+ * while serving one request (e.g. the account in the OTP flow) only goes to Swell once.
+ * <p>
+ * The memo lives in the request attributes and is dropped with the request, so unlike the
+ * {@link SwellResponseCache} it never serves anything across requests. Any write made during
+ * the request clears it. Outside a request thread, e.g. on the async executors, nothing is
+ * remembered.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+public class SwellRequestMemo {
+    private static final String ATTRIBUTE = SwellRequestMemo.class.getName();
+
+    /**
+     * @param path - The GET path.
+     * @return A copy of the response fetched earlier in this request, or null.
+     */
+    public ApiDataObject get(String path) {
+        Map<String, ApiDataObject> memo = memo(false);
+        ApiDataObject response = memo == null ? null : memo.get(path);
+        return response == null ? null : response.deepCopy();
+    }
+
+    /**
+     * Remembers a GET response for the rest of the request.
+     */
+    public void put(String path, ApiDataObject response) {
+        Map<String, ApiDataObject> memo = memo(true);
+        if (memo != null && response != null) {
+            memo.put(path, response.deepCopy());
+        }
+    }
+
+    /**
+     * Forgets everything remembered in this request, after a write.
+     */
+    public void clear() {
+        Map<String, ApiDataObject> memo = memo(false);
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ApiDataObject> memo(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, ApiDataObject> memo = (Map<String, ApiDataObject>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null && create) {
+            memo = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+}
@@ -0,0 +1,153 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A size bounded, least recently used cache of Swell GET responses with a time to live per
+ * path prefix.
+ * <p>
+ * Any write (post, put, delete) through the connection drops every cached response of the
+ * same collection, e.g. a put to /accounts/{email} invalidates /accounts/{id} too. A
+ * generation counter per collection stops a GET that started before a write from caching its
+ * (now stale) response after the write has finished.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+public class SwellResponseCache {
+    private static final String DATA_FIELD = "$data";
+    private final Map<String, Long> ttls = new LinkedHashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    @Autowired
+    public SwellResponseCache(SwellConfig config) {
+        this(config.getCacheMaxEntries(), Map.of(
+                "/accounts/", config.getCacheAccountsTtlMs(),
+                "/products", config.getCacheProductsTtlMs(),
+                "/subscriptions/", config.getCacheSubscriptionsTtlMs()));
+    }
+
+    SwellResponseCache(int maxEntries, Map<String, Long> ttlsByPrefix) {
+        ttlsByPrefix.forEach((prefix, ttl) -> {
+            if (ttl > 0) {
+                ttls.put(prefix, ttl);
+            }
+        });
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param path - The GET path.
+     * @return Whether responses for this path are cached at all.
+     */
+    public boolean isCacheable(String path) {
+        return ttlFor(path) > 0;
+    }
+
+    /**
+     * @param path - The GET path.
+     * @return A copy of the cached response, or null when there is no live entry.
+     */
+    public synchronized ApiDataObject get(String path) {
+        CachedResponse cached = entries.get(path);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            entries.remove(path);
+            return null;
+        }
+        return cached.response.deepCopy();
+    }
+
+    /**
+     * @param path - The GET path about to be requested.
+     * @return The current generation of the path's collection, to be handed back to {@link #put}.
+     */
+    public synchronized long generation(String path) {
+        return generations.getOrDefault(collectionOf(path), 0L);
+    }
+
+    /**
+     * Caches a successful response, unless its collection was written to since the request began.
+     *
+     * @param path       - The GET path.
+     * @param response   - The response from Swell.
+     * @param generation - The generation returned by {@link #generation(String)} before the request.
+     */
+    public void put(String path, ApiDataObject response, long generation) {
+        long ttl = ttlFor(path);
+        if (ttl <= 0 || response == null || response.get(DATA_FIELD) == null) {
+            return;
+        }
+        ApiDataObject copy = response.deepCopy();
+        synchronized (this) {
+            if (generation == generations.getOrDefault(collectionOf(path), 0L)) {
+                entries.put(path, new CachedResponse(copy, System.currentTimeMillis() + ttl));
+            }
+        }
+    }
+
+    /**
+     * Drops every cached response in the collection of a path that was just written to.
+     *
+     * @param path - The path of the post, put or delete.
+     */
+    public synchronized void invalidate(String path) {
+        String collection = collectionOf(path);
+        generations.merge(collection, 1L, Long::sum);
+        Iterator<String> paths = entries.keySet().iterator();
+        while (paths.hasNext()) {
+            if (collectionOf(paths.next()).equals(collection)) {
+                paths.remove();
+            }
+        }
+    }
+
+    private long ttlFor(String path) {
+        for (Map.Entry<String, Long> ttl : ttls.entrySet()) {
+            if (path.startsWith(ttl.getKey())) {
+                return ttl.getValue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The top level collection of a path, i.e. "accounts" for /accounts/{id}/cards.
+     */
+    static String collectionOf(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') {
+            end++;
+        }
+        return path.substring(start, end).trim();
+    }
+
+
+    private static class CachedResponse {
+        private final ApiDataObject response;
+        private final long expiresAt;
+
+        private CachedResponse(ApiDataObject response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
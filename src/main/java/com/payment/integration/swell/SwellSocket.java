@@ -0,0 +1,106 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import com.payment.util.JsonDataParser;
+import com.payment.util.JsonDataReader;
+
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * A single persistent TLS connection to Swell, owned by the {@link SwellConnectionPool}.
+ * <p>
+ * The reader and writer are created once per socket so that buffered data is never lost
+ * between requests made over the same connection. Responses are parsed straight off the
+ * socket stream, without building an intermediate String.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public class SwellSocket implements Closeable {
+    private final SSLSocket socket;
+    private final JsonDataReader reader;
+    private final Writer writer;
+    private final long createdAt;
+    private long lastUsedAt;
+
+    SwellSocket(SSLSocket socket) throws IOException {
+        this.socket = socket;
+        this.reader = new JsonDataReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = createdAt;
+    }
+
+    /**
+     * @return The buffered writer request frames are serialised into. Nothing is sent until
+     * {@link #flush()}, and every frame must be closed with {@link #endFrame()}.
+     */
+    Writer frameWriter() {
+        return writer;
+    }
+
+    /**
+     * Ends the request frame being written, so several frames can be flushed at once.
+     */
+    void endFrame() throws IOException {
+        writer.write('\n');
+    }
+
+    /**
+     * Sends every buffered request frame to the server.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Reads the next response. Responses arrive in the order the requests were written.
+     *
+     * @return The response, or null when the server answered with null.
+     * @throws java.io.EOFException when the server closed the connection.
+     */
+    public ApiDataObject readResponse() throws IOException {
+        ApiDataObject response = JsonDataParser.asObject(reader.readLineValue());
+        lastUsedAt = System.currentTimeMillis();
+        return response;
+    }
+
+    /**
+     * Checks whether the socket can safely be handed out for another request.
+     *
+     * @param maxLifetimeMs - How long the socket may live in total.
+     * @param idleTimeoutMs - How long the socket may sit unused.
+     * @return true when the socket is open, within its lifetime and has no unread data.
+     */
+    boolean isUsable(long maxLifetimeMs, long idleTimeoutMs) {
+        if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - createdAt > maxLifetimeMs || now - lastUsedAt > idleTimeoutMs) {
+            return false;
+        }
+        try {
+            // Anything waiting on an idle socket is either a stray response or a close notification.
+            return !reader.ready();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // The socket is being discarded, nothing more to do.
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.payment.service;
+
+import com.payment.configuration.TwilioConfig;
+import com.payment.dto.OperationStatus;
+import com.sendgrid.Content;
+import com.sendgrid.Email;
+import com.sendgrid.Mail;
+import com.sendgrid.Method;
+import com.sendgrid.Personalization;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Generates and checks one-time passwords itself, using Twilio (SMS) and SendGrid (email)
+ * only to deliver them. A check never leaves the process, and the codes are lost on a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "api.otp.provider", havingValue = "local")
+@Slf4j
+public class LocalOtpProvider implements OtpProvider {
+    private final LocalOtpStore store;
+    private final TwilioRestClient twilioRestClient;
+    private final SendGrid sendGrid;
+    private final TwilioConfig config;
+    private final String backendUrl;
+
+    public LocalOtpProvider(TwilioConfig config, TwilioRestClient twilioRestClient,
+                            @Value("${frontend.server.url}") String backendUrl) {
+        this.store = new LocalOtpStore(config.getOtpCodeLength(), config.getOtpTtlMs(),
+                config.getOtpMaxAttempts(), config.getOtpMaxEntries());
+        this.twilioRestClient = twilioRestClient;
+        this.sendGrid = new SendGrid(config.getOtpSendGridApiKey());
+        this.config = config;
+        this.backendUrl = backendUrl;
+    }
+
+    @Override
+    public void sendVerificationEmail(String email) {
+        String code = store.issue(email);
+        Personalization personalization = new Personalization();
+        personalization.addTo(new Email(email));
+        personalization.addSubstitution("{{code}}", code);
+        personalization.addSubstitution("{{backendUrl}}", backendUrl);
+        personalization.addSubstitution("{{userEmail}}", email);
+        Mail mail = new Mail();
+        mail.setFrom(new Email(config.getOtpEmailFrom()));
+        mail.setSubject(config.getOtpEmailSubject());
+        mail.addPersonalization(personalization);
+        mail.addContent(new Content("text/plain", "Your verification code is " + code));
+        if (!config.getOtpEmailTemplateId().isEmpty()) {
+            mail.setTemplateId(config.getOtpEmailTemplateId());
+        }
+        try {
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+            Response response = sendGrid.api(request);
+            if (response.getStatusCode() >= 300) {
+                throw new IllegalStateException(String.format("Sending the verification email failed with %s: %s",
+                        response.getStatusCode(), response.getBody()));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Sending the verification email failed", e);
+        }
+        log.info("Sent a verification code to {}", email);
+    }
+
+    @Override
+    public void sendVerificationSms(String phoneNumber) {
+        String code = store.issue(phoneNumber);
+        Message message = Message.creator(new PhoneNumber(phoneNumber), new PhoneNumber(config.getOtpSmsFrom()),
+                "Your verification code is " + code).create(twilioRestClient);
+        log.info("Message sid is {}", message.getSid());
+    }
+
+    @Override
+    public OperationStatus checkOtp(String otpCode, String receiver) {
+        return store.verify(receiver, otpCode) ? OperationStatus.APPROVED : OperationStatus.FAILED;
+    }
+}
@@ -0,0 +1,123 @@
+package com.payment.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The codes issued by {@link LocalOtpProvider}, one per receiver.
+ * <p>
+ * Only a salted SHA-256 hash of a code is kept. Entries are immutable and swapped with
+ * compare-and-set, so checks of different receivers never contend and a code can only be
+ * used once even when checked concurrently. A code expires after its time to live or after
+ * too many wrong attempts.
+ */
+class LocalOtpStore {
+    private static final int SALT_BYTES = 16;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int codeLength;
+    private final long ttlMs;
+    private final int maxAttempts;
+    private final int maxEntries;
+
+    LocalOtpStore(int codeLength, long ttlMs, int maxAttempts, int maxEntries) {
+        this.codeLength = codeLength;
+        this.ttlMs = ttlMs;
+        this.maxAttempts = maxAttempts;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Issues a new code for the receiver, replacing any previous one.
+     *
+     * @return The code to deliver.
+     * @throws IllegalStateException when too many codes are outstanding.
+     */
+    String issue(String receiver) {
+        if (entries.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                throw new IllegalStateException("Too many verifications are outstanding, please try again shortly.");
+            }
+        }
+        StringBuilder code = new StringBuilder(codeLength);
+        for (int i = 0; i < codeLength; i++) {
+            code.append(random.nextInt(10));
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        entries.put(key(receiver), new Entry(salt, hash(salt, code.toString()), System.currentTimeMillis() + ttlMs, 0));
+        return code.toString();
+    }
+
+    /**
+     * Checks a code, using it up when it is right.
+     *
+     * @return Whether the code is the one issued to the receiver and is still valid.
+     */
+    boolean verify(String receiver, String code) {
+        String key = key(receiver);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key, entry);
+                return false;
+            }
+            if (code != null && MessageDigest.isEqual(entry.hash, hash(entry.salt, code))) {
+                // Only one of two concurrent checks of the same code removes it.
+                if (entries.remove(key, entry)) {
+                    return true;
+                }
+                continue;
+            }
+            boolean updated = entry.attempts + 1 >= maxAttempts
+                    ? entries.remove(key, entry)
+                    : entries.replace(key, entry, entry.withAttempt());
+            if (updated) {
+                return false;
+            }
+        }
+    }
+
+    private static String key(String receiver) {
+        return receiver.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] hash(byte[] salt, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(code.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] salt;
+        private final byte[] hash;
+        private final long expiresAt;
+        private final int attempts;
+
+        private Entry(byte[] salt, byte[] hash, long expiresAt, int attempts) {
+            this.salt = salt;
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+            this.attempts = attempts;
+        }
+
+        private Entry withAttempt() {
+            return new Entry(salt, hash, expiresAt, attempts + 1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.payment.service;
+
+import com.payment.dto.OperationStatus;
+
+/**
+ * Sends one-time passwords and checks them. Which implementation is used is chosen by
+ * {@code api.otp.provider}: "twilio" for Twilio Verify, or "local" for {@link LocalOtpProvider}.
+ */
+public interface OtpProvider {
+
+    void sendVerificationEmail(String email);
+
+    void sendVerificationSms(String phoneNumber);
+
+    /**
+     * @param otpCode  - The code the customer entered.
+     * @param receiver - The email address or phone number the code was sent to.
+     * @return APPROVED when the code is right, FAILED otherwise.
+     */
+    OperationStatus checkOtp(String otpCode, String receiver);
+}
@@ -0,0 +1,158 @@
+package com.payment.service;
+
+import com.payment.configuration.TwilioConfig;
+import com.payment.dto.OperationStatus;
+import com.payment.dto.ServiceResponse;
+import com.payment.exception.classes.ServiceOverloadedException;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends Twilio verifications in the background, so request threads never wait on Twilio.
+ * <p>
+ * Sends are queued on a bounded queue and run by a small worker pool. Connection failures,
+ * throttling and server errors are retried with a doubling backoff. The outcome of every send
+ * can be queried by its dispatch id for {@code api.twilio.dispatch.statusTtlMs}; expired
+ * statuses are purged on a schedule of the same interval, off the request path.
+ */
+@Component
+@Slf4j
+public class TwilioDispatchQueue {
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Dispatch> dispatches = new ConcurrentHashMap<>();
+    private final int retries;
+    private final long backoffMs;
+    private final long statusTtlMs;
+
+    public TwilioDispatchQueue(TwilioConfig config) {
+        this.retries = config.getDispatchRetries();
+        this.backoffMs = config.getDispatchBackoffMs();
+        this.statusTtlMs = config.getDispatchStatusTtlMs();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(config.getDispatchWorkers(), config.getDispatchWorkers(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getDispatchQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "twilio-dispatch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a send.
+     *
+     * @param description - What is sent, for the logs.
+     * @param send        - Makes the Twilio call.
+     * @return The id the status of the send can be queried with.
+     * @throws ServiceOverloadedException when the queue is full.
+     */
+    public String submit(String description, Runnable send) {
+        String id = UUID.randomUUID().toString();
+        Dispatch dispatch = new Dispatch();
+        dispatches.put(id, dispatch);
+        try {
+            workers.execute(() -> run(description, send, dispatch));
+        } catch (RejectedExecutionException e) {
+            dispatches.remove(id);
+            throw new ServiceOverloadedException("Too many verifications are being sent, please try again shortly.");
+        }
+        return id;
+    }
+
+    /**
+     * @param id - The dispatch id returned by {@link #submit(String, Runnable)}.
+     * @return The status of the send.
+     * @throws IllegalArgumentException when the id is unknown or expired.
+     */
+    public ServiceResponse status(String id) {
+        Dispatch dispatch = dispatches.get(id);
+        if (dispatch == null || dispatch.isExpired(System.currentTimeMillis(), statusTtlMs)) {
+            throw new IllegalArgumentException(String.format("The verification dispatch %s was not found", id));
+        }
+        return ServiceResponse.builder()
+                .operationStatus(dispatch.status)
+                .details(Map.of("dispatchId", id))
+                .errorMessage(dispatch.errorMessage)
+                .build();
+    }
+
+    private void run(String description, Runnable send, Dispatch dispatch) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                send.run();
+                dispatch.finish(OperationStatus.SUCCESSFUL, null);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= retries || !isRetryable(e)) {
+                    log.error("Sending {} failed after {} attempts", description, attempt + 1, e);
+                    dispatch.finish(OperationStatus.FAILED, e.getMessage());
+                    return;
+                }
+                log.warn("Sending {} failed, retrying: {}", description, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dispatch.finish(OperationStatus.FAILED, "Interrupted");
+                return;
+            }
+        }
+    }
+
+    // Connection failures, throttling and server errors may succeed later, bad requests never will.
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof ApiConnectionException) {
+            return true;
+        }
+        if (e instanceof ApiException) {
+            Integer status = ((ApiException) e).getStatusCode();
+            return status == null || status == 429 || status >= 500;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the statuses of sends that finished more than {@code api.twilio.dispatch.statusTtlMs} ago.
+     */
+    @Scheduled(initialDelayString = "${api.twilio.dispatch.statusTtlMs}", fixedDelayString = "${api.twilio.dispatch.statusTtlMs}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        dispatches.values().removeIf(dispatch -> dispatch.isExpired(now, statusTtlMs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static final class Dispatch {
+        private volatile OperationStatus status = OperationStatus.PENDING;
+        private volatile String errorMessage;
+        private volatile long finishedAt;
+
+        private void finish(OperationStatus status, String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.status = status;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        private boolean isExpired(long now, long ttlMs) {
+            return finishedAt > 0 && now - finishedAt > ttlMs;
+        }
+    }
+}
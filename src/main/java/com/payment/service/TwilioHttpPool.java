@@ -0,0 +1,105 @@
+package com.payment.service;
+
+import com.payment.configuration.TwilioConfig;
+import com.payment.util.ApiDataObject;
+import com.twilio.http.HttpClient;
+import com.twilio.http.NetworkHttpClient;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The connection pool every Twilio call goes through.
+ * <p>
+ * Connections are kept alive for {@code api.twilio.http.keepAliveMs} and reused across calls,
+ * so a verification does not pay for a new TLS handshake. Every wait is bounded: for a pooled
+ * connection, for connecting and for the response. How many connections had to be opened
+ * compared to the requests made is logged every {@code api.twilio.http.statsIntervalMs}.
+ */
+@Component
+@Slf4j
+public class TwilioHttpPool {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final HttpClient httpClient;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private long lastLoggedRequests;
+
+    public TwilioHttpPool(TwilioConfig config) {
+        connectionManager = new PoolingHttpClientConnectionManager((route, connectionConfig) -> {
+            connectionsOpened.incrementAndGet();
+            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, connectionConfig);
+        });
+        // Twilio is a single host, so the whole pool is available to its route.
+        connectionManager.setMaxTotal(config.getHttpMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getHttpMaxConnections());
+        connectionManager.setValidateAfterInactivity(2000);
+
+        long keepAliveMs = config.getHttpKeepAliveMs();
+        ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+            long advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return advertised > 0 ? Math.min(advertised, keepAliveMs) : keepAliveMs;
+        };
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(config.getHttpPoolTimeoutMs())
+                        .setConnectTimeout(config.getHttpConnectTimeoutMs())
+                        .setSocketTimeout(config.getHttpReadTimeoutMs())
+                        .build())
+                .setKeepAliveStrategy(keepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+                .addInterceptorFirst((HttpRequestInterceptor) (request, context) -> requests.incrementAndGet());
+        httpClient = new NetworkHttpClient(builder);
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return The state of the pool, and how many requests reused a connection.
+     */
+    public ApiDataObject stats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        long requestCount = requests.get();
+        long opened = connectionsOpened.get();
+        return new ApiDataObject()
+                .put("leased", pool.getLeased())
+                .put("available", pool.getAvailable())
+                .put("pending", pool.getPending())
+                .put("max", pool.getMax())
+                .put("requests", requestCount)
+                .put("connectionsOpened", opened)
+                .put("reuseRate", requestCount == 0 ? 0 : Math.max(0, requestCount - opened) / (double) requestCount);
+    }
+
+    @Scheduled(initialDelayString = "${api.twilio.http.statsIntervalMs}", fixedDelayString = "${api.twilio.http.statsIntervalMs}")
+    public void logStats() {
+        long requestCount = requests.get();
+        if (requestCount == lastLoggedRequests) {
+            return;
+        }
+        lastLoggedRequests = requestCount;
+        log.info("Twilio connection pool: {}", stats());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionManager.shutdown();
+    }
+}
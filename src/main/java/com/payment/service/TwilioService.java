@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
 import java.util.Optional;
 
 @Component
@@ -18,7 +19,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TwilioService {
     private final SwellAccountService swellAccountService;
-    private final TwilioVerificationService twilioVerificationService;
+    private final OtpProvider otpProvider;
+    private final TwilioDispatchQueue twilioDispatchQueue;
     private static final String EMAIL_FIELD = "email";
 
     public ServiceResponse sendVerification(TwilioRequest twilioRequest) {
@@ -30,6 +32,33 @@ public class TwilioService {
         return sendVerifySms(phoneNumber);
     }
 
+    /**
+     * Queues the verification instead of waiting for Twilio. The customer's phone number is
+     * still looked up before queueing, so an unknown customer is reported straight away.
+     *
+     * @return A PENDING response with the "dispatchId" to query the send with.
+     */
+    public ServiceResponse sendVerificationAsync(TwilioRequest twilioRequest) {
+        String email = twilioRequest.getEmail();
+        String dispatchId;
+        if (twilioRequest.getVerificationType() == TwilioVerificationType.EMAIL) {
+            dispatchId = twilioDispatchQueue.submit("an email verification to " + email,
+                    () -> otpProvider.sendVerificationEmail(email));
+        } else {
+            String phoneNumber = getUserPhoneNumber(email);
+            dispatchId = twilioDispatchQueue.submit("an sms verification to " + email,
+                    () -> otpProvider.sendVerificationSms(phoneNumber));
+        }
+        return ServiceResponse.builder()
+                .operationStatus(OperationStatus.PENDING)
+                .details(Map.of("dispatchId", dispatchId))
+                .build();
+    }
+
+    public ServiceResponse getDispatchStatus(String dispatchId) {
+        return twilioDispatchQueue.status(dispatchId);
+    }
+
     public String getUserPhoneNumber(String email) {
         log.info("Getting customer {} from swell", email);
         ApiDataObject account = swellAccountService.getAccount(email);
@@ -44,19 +73,19 @@ public class TwilioService {
     }
 
     public ServiceResponse sendVerifyEmail(String email) {
-        twilioVerificationService.sendVerificationEmail(email);
+        otpProvider.sendVerificationEmail(email);
         return ServiceResponse.builder().operationStatus(OperationStatus.SUCCESSFUL).build();
     }
 
     public ServiceResponse sendVerifySms(String phoneNumber) {
-        twilioVerificationService.sendVerificationSms(phoneNumber);
+        otpProvider.sendVerificationSms(phoneNumber);
         return ServiceResponse.builder().operationStatus(OperationStatus.SUCCESSFUL).build();
     }
 
     public ServiceResponse checkOtp(TwilioRequest twilioRequest) {
         String email = twilioRequest.getEmail();
         String receiver = twilioRequest.getVerificationType().equals(TwilioVerificationType.EMAIL) ? email : getUserPhoneNumber(email);
-        OperationStatus operationStatus = twilioVerificationService.checkOtp(twilioRequest.getOtpCode(), receiver);
+        OperationStatus operationStatus = otpProvider.checkOtp(twilioRequest.getOtpCode(), receiver);
         ApiDataObject generatedPassword = null;
         if (operationStatus == OperationStatus.APPROVED) {
             generatedPassword = swellAccountService.generatePasswordToken(email);
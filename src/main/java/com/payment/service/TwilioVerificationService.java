@@ -1,49 +1,47 @@
 package com.payment.service;
 
 import com.payment.dto.OperationStatus;
-import com.twilio.Twilio;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.verify.v2.service.Verification;
 import com.twilio.rest.verify.v2.service.VerificationCheck;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
 import java.util.Map;
 
 @Component
+@ConditionalOnProperty(name = "api.otp.provider", havingValue = "twilio", matchIfMissing = true)
 @Slf4j
-public class TwilioVerificationService {
+@RequiredArgsConstructor
+public class TwilioVerificationService implements OtpProvider {
     private static final String EMAIL_FIELD = "email";
 
-    @Value("${api.twilio.accountSid}")
-    private String accountSid;
-    @Value("${api.twilio.authToken}")
-    private String authToken;
+    private final TwilioRestClient twilioRestClient;
     @Value("${api.twilio.templateSid}")
     private String templateSid;
     @Value("${frontend.server.url}")
     private String backendUrl;
 
-    @PostConstruct
-    public void init() {
-        Twilio.init(accountSid, authToken);
-    }
-
+    @Override
     public void sendVerificationEmail(String email) {
         Verification verification = Verification.creator(templateSid, email, EMAIL_FIELD)
                 .setChannelConfiguration(Map.of("substitutions", getCustomTemplateVariables(email)))
-                .create();
+                .create(twilioRestClient);
         log.info("Verification sid is {}", verification.getSid());
     }
 
+    @Override
     public void sendVerificationSms(String phoneNumber) {
-        Verification verification = Verification.creator(templateSid, phoneNumber, "sms").create();
+        Verification verification = Verification.creator(templateSid, phoneNumber, "sms").create(twilioRestClient);
         log.info("Verification sid is {}", verification.getSid());
     }
 
+    @Override
     public OperationStatus checkOtp(String otpCode, String receiver) {
-        VerificationCheck verificationCheck = VerificationCheck.creator(templateSid).setTo(receiver).setCode(otpCode).create();
+        VerificationCheck verificationCheck = VerificationCheck.creator(templateSid).setTo(receiver).setCode(otpCode).create(twilioRestClient);
         String status = verificationCheck.getStatus();
         log.info("Verification sid is {}, and status {}", verificationCheck.getSid(), status);
         return status.equals("approved") ? OperationStatus.APPROVED : OperationStatus.FAILED;
@@ -3,23 +3,21 @@ package com.payment.service.swell;
 import com.payment.configuration.SwellConfig;
 import com.payment.exception.classes.CustomerNotFoundException;
 import com.payment.integration.swell.SwellConnection;
+import com.payment.integration.swell.SwellExecutor;
+import com.payment.integration.swell.SwellPageFetcher;
 import com.payment.integration.swell.dto.SwellCustomer;
+import com.payment.service.swell.sync.SwellReplica;
 import com.payment.util.ApiDataObject;
 import com.payment.util.CryptUtil;
-import com.payment.util.JsonDataParser;
+import com.payment.util.RequestType;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 /**
@@ -32,19 +30,37 @@ import java.util.concurrent.Executors;
 @Slf4j
 public class SwellAccountService {
     private final SwellConnection connection;
+    private final SwellExecutor executor;
+    private final SwellPageFetcher pageFetcher;
+    private final SwellConfig config;
+    private final SwellReplica replica;
+    private final SwellUnknownAccounts unknownAccounts;
     private static final String ACCOUNT_ENDPOINT = "/accounts/";
     private static final String DATA_FIELD = "$data";
 
     /**
-     * Fetches a specified account from swell.
+     * Fetches a specified account from swell, or from the synced replica when
+     * {@code api.swell.replica.readAccounts} is on and the replica holds it.
      *
      * @param id - The ID of the account (Can also be an email address).
      * @return The targeted account from swell.
+     * @throws CustomerNotFoundException when the account does not exist, possibly without asking
+     *                                   swell, see {@link SwellUnknownAccounts}.
      */
     public ApiDataObject getAccount(String id) {
+        if (unknownAccounts.isKnownMissing(id)) {
+            throw new CustomerNotFoundException(id);
+        }
+        if (config.isReplicaReadAccounts()) {
+            ApiDataObject replicated = replica.findAccount(id);
+            if (replicated != null) {
+                return new ApiDataObject().put(DATA_FIELD, replicated);
+            }
+        }
         ApiDataObject account = connection.get(ACCOUNT_ENDPOINT + id);
         ApiDataObject accountDetails = account.getDataObject(DATA_FIELD);
         if (accountDetails == null) {
+            unknownAccounts.recordMissing(id);
             throw new CustomerNotFoundException(id);
         }
         return account;
@@ -57,14 +73,19 @@ public class SwellAccountService {
      * @return A response {@link ApiDataObject} stating if the request was successful or not.
      */
     public ApiDataObject deleteAccount(String id) {
-        ApiDataObject response = new ApiDataObject();
+        return deleted(id, connection.delete(ACCOUNT_ENDPOINT + id, deleteBody(id)));
+    }
 
+    private static ApiDataObject deleteBody(String id) {
         ApiDataObject body = new ApiDataObject();
 
         body.put("id", id);
         body.put("$force_delete", true);
+        return body;
+    }
 
-        ApiDataObject apiResponse = connection.delete(ACCOUNT_ENDPOINT + id, body);
+    private static ApiDataObject deleted(String id, ApiDataObject apiResponse) {
+        ApiDataObject response = new ApiDataObject();
 
         if (apiResponse.get(DATA_FIELD) == null) {
             String errorMessage = "Failed to delete: " + id + " or account does not exist.";
@@ -86,6 +107,10 @@ public class SwellAccountService {
      * @param token
      */
     public ApiDataObject addPaymentMethod(String accountId, String gateway, String gatewayCustomerId, String token) {
+        return connection.post(ACCOUNT_ENDPOINT + accountId + "/cards", paymentMethodBody(accountId, gateway, gatewayCustomerId, token));
+    }
+
+    private static ApiDataObject paymentMethodBody(String accountId, String gateway, String gatewayCustomerId, String token) {
         ApiDataObject body = new ApiDataObject();
         body.put("id", accountId);
         body.put("gateway", gateway);
@@ -93,7 +118,7 @@ public class SwellAccountService {
         body.put("token", token);
         body.put("$vault", "true");
         body.put("active", "true");
-        return connection.post(ACCOUNT_ENDPOINT + accountId + "/cards", body);
+        return body;
     }
 
 
@@ -114,11 +139,15 @@ public class SwellAccountService {
      * }
      */
     public ApiDataObject makeDefaultPaymentMethod(String accountId, String paymentMethodId) {
+        return connection.put(ACCOUNT_ENDPOINT + accountId, defaultPaymentMethodBody(paymentMethodId));
+    }
+
+    private static ApiDataObject defaultPaymentMethodBody(String paymentMethodId) {
         ApiDataObject body = new ApiDataObject();
         ApiDataObject billing = new ApiDataObject();
         billing.put("account_card_id", paymentMethodId);
         body.put("billing", billing);
-        return connection.put(ACCOUNT_ENDPOINT + accountId, body);
+        return body;
     }
 
 
@@ -134,6 +163,10 @@ public class SwellAccountService {
      * @return A response object from Swell.
      */
     public ApiDataObject addAddress(String accountId, String address1, String address2, String city, String state, String country, String postcode) {
+        return logErrors(connection.post(ACCOUNT_ENDPOINT + accountId + "/addresses", addressBody(address1, address2, city, state, country, postcode)));
+    }
+
+    private static ApiDataObject addressBody(String address1, String address2, String city, String state, String country, String postcode) {
         ApiDataObject body = new ApiDataObject();
         body.put("address1", address1);
         body.put("address2", address2);
@@ -141,11 +174,7 @@ public class SwellAccountService {
         body.put("state", state);
         body.put("zip", postcode);
         body.put("country", country);
-        ApiDataObject response = connection.post(ACCOUNT_ENDPOINT + accountId + "/addresses", body);
-        if (response.getDataObject(DATA_FIELD).get("errors") != null) {
-            log.info(response.getDataObject(DATA_FIELD).getDataObject("errors").toString());
-        }
-        return response;
+        return body;
     }
 
 
@@ -157,11 +186,18 @@ public class SwellAccountService {
      * @return A response object from Swell.
      */
     public ApiDataObject makeDefaultAddress(String accountId, String addressId) {
+        return logErrors(connection.put(ACCOUNT_ENDPOINT + accountId, defaultAddressBody(addressId)));
+    }
+
+    private static ApiDataObject defaultAddressBody(String addressId) {
         ApiDataObject body = new ApiDataObject();
         ApiDataObject data = new ApiDataObject();
         data.put("account_address_id", addressId);
         body.put("shipping", data);
-        ApiDataObject response = connection.put(ACCOUNT_ENDPOINT + accountId, body);
+        return body;
+    }
+
+    private static ApiDataObject logErrors(ApiDataObject response) {
         if (response.getDataObject(DATA_FIELD).get("errors") != null) {
             log.info(response.getDataObject(DATA_FIELD).getDataObject("errors").toString());
         }
@@ -178,12 +214,23 @@ public class SwellAccountService {
      * @return
      */
     public ApiDataObject createAccount(String firstName, String lastName, String email, String phone) {
+        return created(email, connection.post("/accounts", accountBody(firstName, lastName, email, phone)));
+    }
+
+    private static ApiDataObject accountBody(String firstName, String lastName, String email, String phone) {
         ApiDataObject body = new ApiDataObject();
         body.put("email", email);
         body.put("first_name", firstName);
         body.put("last_name", lastName);
         body.put("phone", phone);
-        return connection.post("/accounts", body);
+        return body;
+    }
+
+    private ApiDataObject created(String email, ApiDataObject response) {
+        if (email != null) {
+            unknownAccounts.recordExisting(email);
+        }
+        return response;
     }
 
 
@@ -196,11 +243,7 @@ public class SwellAccountService {
      * @return A number of how many registered customer accounts there are.
      */
     public long getAccountCount() {
-        ApiDataObject countQuery = connection.get("/accounts?limit=1");
-        if (countQuery == null) {
-            return getAccountCount();
-        }
-        long count = (long) (countQuery.getDataObject(DATA_FIELD)).get("count");
+        long count = pageFetcher.count("/accounts");
         log.info("count: " + count);
 
         return count;
@@ -224,36 +267,26 @@ public class SwellAccountService {
      *              swell.
      */
     public List<ApiDataObject> getAllAccounts(int limit) throws InterruptedException {
-        if (limit > SwellConfig.FETCH_LIMIT) {
-            limit = SwellConfig.FETCH_LIMIT;
-        }
-        if (limit <= 0) {
-            limit = 25;
-        }
-        ApiDataObject countQuery = connection.get("/accounts?limit= 1");
-        if (countQuery == null || !((boolean) countQuery.get("success"))) {
-            return Collections.emptyList();
-        }
-        double count = (long) (countQuery.getDataObject(DATA_FIELD)).get("count");
-        List<ApiDataObject> data = new ArrayList<>();
-        int pages = (int) Math.ceil(count / limit);
-        CountDownLatch latch = new CountDownLatch(pages);
-        ExecutorService executor = Executors.newFixedThreadPool(pages);
-        for (int i = 1; i < pages + 1; i++) {
-            final int page = i;
-            final int page_limit = limit;
-
-            executor.submit(() -> {
-                ApiDataObject query = connection.get("/accounts?limit=" + page_limit + "&page=" + page);
-                JSONArray fetchedData = (JSONArray) ((ApiDataObject) query.get(DATA_FIELD)).get("results");
-                for (Object fetchedDatum : fetchedData) {
-                    data.add(JsonDataParser.createApiDataObject((JSONObject) fetchedDatum));
-                }
-                latch.countDown();
-            });
+        try (SwellUnknownAccounts.Rebuild rebuild = unknownAccounts.startRebuild()) {
+            List<ApiDataObject> accounts = pageFetcher.fetchAll("/accounts", limit);
+            if (rebuild != null) {
+                rebuild.add(accounts);
+                rebuild.complete();
+            }
+            return accounts;
         }
-        latch.await();
-        return data;
+    }
+
+
+    /**
+     * Streams all accounts from Swell, fetching pages lazily as the stream is consumed, so only
+     * a few pages are held in memory at a time. The stream must be closed when it is not
+     * consumed to the end.
+     *
+     * @param pageSize - The amount of accounts per page fetched from swell.
+     */
+    public Stream<ApiDataObject> streamAccounts(int pageSize) {
+        return pageFetcher.stream("/accounts", pageSize);
     }
 
 
@@ -285,5 +318,93 @@ public class SwellAccountService {
         }
         return response;
     }
-}
 
+    /**
+     * Asynchronous version of {@link #getAccount(String)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAccountAsync(String id) {
+        return executor.supply(() -> getAccount(id));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteAccount(String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> deleteAccountAsync(String id) {
+        return connection.requestAsync(RequestType.DELETE, ACCOUNT_ENDPOINT + id, deleteBody(id))
+                .thenApply(apiResponse -> deleted(id, apiResponse));
+    }
+
+    /**
+     * Asynchronous version of {@link #addPaymentMethod(String, String, String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> addPaymentMethodAsync(String accountId, String gateway, String gatewayCustomerId, String token) {
+        return connection.requestAsync(RequestType.POST, ACCOUNT_ENDPOINT + accountId + "/cards",
+                paymentMethodBody(accountId, gateway, gatewayCustomerId, token));
+    }
+
+    /**
+     * Asynchronous version of {@link #makeDefaultPaymentMethod(String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> makeDefaultPaymentMethodAsync(String accountId, String paymentMethodId) {
+        return connection.requestAsync(RequestType.PUT, ACCOUNT_ENDPOINT + accountId, defaultPaymentMethodBody(paymentMethodId));
+    }
+
+    /**
+     * Asynchronous version of {@link #addAddress(String, String, String, String, String, String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> addAddressAsync(String accountId, String address1, String address2, String city, String state, String country, String postcode) {
+        return connection.requestAsync(RequestType.POST, ACCOUNT_ENDPOINT + accountId + "/addresses",
+                addressBody(address1, address2, city, state, country, postcode)).thenApply(SwellAccountService::logErrors);
+    }
+
+    /**
+     * Asynchronous version of {@link #makeDefaultAddress(String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> makeDefaultAddressAsync(String accountId, String addressId) {
+        return connection.requestAsync(RequestType.PUT, ACCOUNT_ENDPOINT + accountId, defaultAddressBody(addressId))
+                .thenApply(SwellAccountService::logErrors);
+    }
+
+    /**
+     * Asynchronous version of {@link #createAccount(String, String, String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> createAccountAsync(String firstName, String lastName, String email, String phone) {
+        return connection.requestAsync(RequestType.POST, "/accounts", accountBody(firstName, lastName, email, phone))
+                .thenApply(response -> created(email, response));
+    }
+
+    /**
+     * Asynchronous version of {@link #createAccount(SwellCustomer)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> createAccountAsync(SwellCustomer customer) {
+        return createAccountAsync(customer.getFirstName(), customer.getLastName(), customer.getEmail(), customer.getPhone());
+    }
+
+    /**
+     * Asynchronous version of {@link #getAccountCount()}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<Long> getAccountCountAsync() {
+        return executor.supply(this::getAccountCount);
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllAccounts(int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<List<ApiDataObject>> getAllAccountsAsync(int limit) {
+        return executor.supply(() -> getAllAccounts(limit));
+    }
+
+    /**
+     * Asynchronous version of {@link #generatePasswordToken(String)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> generatePasswordTokenAsync(String email) {
+        return executor.supply(() -> generatePasswordToken(email));
+    }
+}
@@ -0,0 +1,85 @@
+package com.payment.service.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.CustomerNotFoundException;
+import com.payment.util.ApiDataObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Assembles a full view of a customer (account, orders and subscriptions) in one call.
+ * <p>
+ * The three are fetched from Swell concurrently, so the view takes as long as the slowest of
+ * them rather than their sum. Every branch has its own timeout, and a branch that fails or
+ * times out is left empty and reported under "errors" instead of failing the whole view.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SwellCustomerService {
+    private final SwellConfig config;
+    private final SwellAccountService accounts;
+    private final SwellOrderService orders;
+    private final SwellSubscriptionService subscriptions;
+
+    /**
+     * @param accountId - The ID of the account.
+     * @return The account, its latest orders and subscriptions, and the errors of the branches
+     * that could not be fetched.
+     * @throws CustomerNotFoundException when the account does not exist.
+     */
+    public ApiDataObject getCustomer(String accountId) {
+        int limit = config.getCustomerRecordLimit();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getCustomerTimeoutMs());
+        CompletableFuture<ApiDataObject> account = accounts.getAccountAsync(accountId);
+        CompletableFuture<?> accountOrders = orders.getOrdersByAccountAsync(accountId, limit);
+        CompletableFuture<?> accountSubscriptions = subscriptions.getSubscriptionsByAccountAsync(accountId, limit);
+
+        ApiDataObject errors = new ApiDataObject();
+        ApiDataObject customer = new ApiDataObject();
+        ApiDataObject accountResponse = (ApiDataObject) await("account", account, deadline, errors);
+        customer.put("account", accountResponse == null ? null : accountResponse.get("$data"));
+        customer.put("orders", await("orders", accountOrders, deadline, errors));
+        customer.put("subscriptions", await("subscriptions", accountSubscriptions, deadline, errors));
+        customer.put("errors", errors);
+        customer.put("complete", errors.isEmpty());
+        return customer;
+    }
+
+    /**
+     * Waits for a branch until the deadline. The branches were started together, so each of
+     * them gets the full timeout however long the branches before it took.
+     *
+     * @return The result of the branch, or null when it failed, with the reason put in the errors.
+     */
+    private Object await(String branch, CompletableFuture<?> future, long deadline, ApiDataObject errors) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Fetching the {} of a customer timed out", branch);
+            errors.put(branch, "Timed out after " + config.getCustomerTimeoutMs() + "ms");
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CustomerNotFoundException) {
+                throw (CustomerNotFoundException) cause;
+            }
+            log.warn("Fetching the {} of a customer failed", branch, cause);
+            errors.put(branch, cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.put(branch, "Interrupted");
+        }
+        return null;
+    }
+}
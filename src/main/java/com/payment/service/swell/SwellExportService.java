@@ -0,0 +1,82 @@
+package com.payment.service.swell;
+
+import com.payment.integration.swell.SwellPageFetcher;
+import com.payment.integration.swell.SwellPageIterator;
+import com.payment.util.ApiDataObject;
+import com.payment.util.JsonDataWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Exports whole Swell collections as newline-delimited JSON, one record per line.
+ * <p>
+ * Records are written while the following pages are still being fetched and the output is
+ * flushed after every page, so neither the collection nor the response is ever held in memory.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SwellExportService {
+    private final SwellPageFetcher pageFetcher;
+
+    /**
+     * Writes every account to the stream, see {@link #export(String, int, OutputStream)}.
+     */
+    public long exportAccounts(int limit, OutputStream out) throws IOException {
+        return export("/accounts", limit, out);
+    }
+
+    /**
+     * Writes every order to the stream, see {@link #export(String, int, OutputStream)}.
+     */
+    public long exportOrders(int limit, OutputStream out) throws IOException {
+        return export("/orders", limit, out);
+    }
+
+    /**
+     * Writes every subscription to the stream, see {@link #export(String, int, OutputStream)}.
+     */
+    public long exportSubscriptions(int limit, OutputStream out) throws IOException {
+        return export("/subscriptions", limit, out);
+    }
+
+    /**
+     * Writes every record of a collection to the stream as newline-delimited JSON. The stream
+     * is flushed after every page but not closed.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param limit      - The amount of records per page fetched from swell.
+     * @param out        - Where the records are written to.
+     * @return How many records were written.
+     */
+    private long export(String collection, int limit, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long records = 0;
+        try (SwellPageIterator pages = pageFetcher.pages(collection, limit)) {
+            while (pages.hasNext()) {
+                for (ApiDataObject record : pages.next()) {
+                    JsonDataWriter.write(record, writer);
+                    writer.write('\n');
+                    records++;
+                }
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Export of {} failed after {} records", collection, records, e);
+            throw e;
+        }
+        log.info("Exported {} records of {}", records, collection);
+        return records;
+    }
+}
@@ -0,0 +1,38 @@
+package com.payment.service.swell;
+
+import com.payment.integration.swell.SwellCircuitBreaker;
+import com.payment.integration.swell.SwellConcurrencyLimiter;
+import com.payment.integration.swell.SwellConnectionPool;
+import com.payment.integration.swell.SwellHedger;
+import com.payment.util.ApiDataObject;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+
+/**
+ * Reports how the connection to Swell is coping, for monitoring.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Service
+@RequiredArgsConstructor
+public class SwellMetricsService {
+    private final SwellConnectionPool pool;
+    private final SwellCircuitBreaker breaker;
+    private final SwellConcurrencyLimiter concurrencyLimiter;
+    private final SwellHedger hedger;
+
+    /**
+     * @return The adaptive concurrency limit and the requests in flight, the state of the
+     * circuit breaker, the use of the connection pool and how many GETs were hedged.
+     */
+    public ApiDataObject getMetrics() {
+        return new ApiDataObject()
+                .put("concurrency", concurrencyLimiter.stats())
+                .put("breaker", breaker.getState().name())
+                .put("pool", new ApiDataObject()
+                        .put("idle", pool.getIdleCount())
+                        .put("active", pool.getActiveCount()))
+                .put("hedge", hedger.stats());
+    }
+}
@@ -2,19 +2,17 @@ package com.payment.service.swell;
 
 import com.payment.configuration.SwellConfig;
 import com.payment.integration.swell.SwellConnection;
+import com.payment.integration.swell.SwellExecutor;
+import com.payment.integration.swell.SwellPageFetcher;
 import com.payment.util.ApiDataObject;
-import com.payment.util.JsonDataParser;
+import com.payment.util.RequestType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 /**
@@ -28,6 +26,8 @@ import java.util.concurrent.Executors;
 public class SwellOrderService {
 
     private final SwellConnection connection;
+    private final SwellExecutor executor;
+    private final SwellPageFetcher pageFetcher;
     private static final String DATA_FIELD = "$data";
 
     /**
@@ -40,6 +40,26 @@ public class SwellOrderService {
         return connection.get("/orders/" + id);
     }
 
+    /**
+     * Fetches the latest orders of an account from swell.
+     *
+     * @param accountId - The ID of the account.
+     * @param limit     - The maximum amount of orders returned.
+     * @return The orders of the account, newest first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ApiDataObject> getOrdersByAccount(String accountId, int limit) {
+        ApiDataObject query = new ApiDataObject()
+                .put("where", new ApiDataObject().put("account_id", accountId))
+                .put("sort", "date_created desc");
+        ApiDataObject response = connection.request(RequestType.GET, "/orders?limit=" + SwellPageFetcher.pageLimit(limit), query);
+        ApiDataObject data = response.getDataObject(DATA_FIELD);
+        if (data == null || !(data.get("results") instanceof List)) {
+            throw new IllegalStateException("Failed to fetch the orders of account " + accountId);
+        }
+        return (List<ApiDataObject>) data.get("results");
+    }
+
     /**
      * Delete an individual order from swell.
      *
@@ -47,10 +67,11 @@ public class SwellOrderService {
      * @return A response {@link ApiDataObject} stating if the request was successful or not.
      */
     public ApiDataObject deleteOrder(String id) {
+        return deleted(id, connection.delete("/orders/" + id, new ApiDataObject().put("id", id)));
+    }
+
+    private static ApiDataObject deleted(String id, ApiDataObject apiResponse) {
         ApiDataObject response = new ApiDataObject();
-        ApiDataObject body = new ApiDataObject();
-        body.put("id", id);
-        ApiDataObject apiResponse = connection.delete("/orders/" + id, body);
         if (apiResponse.get(DATA_FIELD) == null) {
             String errorMessage = "Failed to delete order with id " + id;
             log.error(errorMessage);
@@ -75,58 +96,64 @@ public class SwellOrderService {
      * @return
      */
     public List<ApiDataObject> getAllOrders(int limit) throws InterruptedException {
-        limit = setMaxOrDefaultLimit(limit);
-        ApiDataObject countQuery = connection.get("/orders?limit=1");
-        if (countQuery == null) {
-            return getAllOrders(limit);
-        }
-        double count = (long) ((ApiDataObject) countQuery.get(DATA_FIELD)).get("count");
-        log.info("count: " + count);
-        log.info("Preparing order data...");
-        List<ApiDataObject> data = new ArrayList<>();
-        int pages = (int) Math.ceil(count / limit);
-        log.info("pages: " + pages);
-        CountDownLatch latch = new CountDownLatch(pages);
-        ExecutorService executor = Executors.newFixedThreadPool(pages);
-        for (int i = 1; i < pages + 1; i++) {
-            final int page = i;
-            final int page_limit = limit;
-            executor.submit(() -> {
-                log.info("Getting data for page: " + page);
-                ApiDataObject query = connection.get("/orders?limit=" + page_limit + "&page=" + page);
-                JSONArray fetchedData = (JSONArray) (query.getDataObject(DATA_FIELD))
-                        .get("results");
-                for (Object fetchedDatum : fetchedData) {
-                    data.add(JsonDataParser.createApiDataObject((JSONObject) fetchedDatum));
-                }
-                latch.countDown();
-            });
-        }
-        latch.await();
-        log.info("Captured Data size: " + data.size());
-        return data;
+        return pageFetcher.fetchAll("/orders", limit);
     }
 
-    private static int setMaxOrDefaultLimit(int limit) {
-        if (limit > SwellConfig.FETCH_LIMIT) {
-            limit = SwellConfig.FETCH_LIMIT;
-        }
-        if (limit <= 0) {
-            limit = 25;
-        }
-        return limit;
+
+    /**
+     * Streams all orders from Swell, fetching pages lazily as the stream is consumed, so only
+     * a few pages are held in memory at a time. The stream must be closed when it is not
+     * consumed to the end.
+     *
+     * @param pageSize - The amount of orders per page fetched from swell.
+     */
+    public Stream<ApiDataObject> streamOrders(int pageSize) {
+        return pageFetcher.stream("/orders", pageSize);
     }
 
     /**
      * @return A number of how many registered orders there are.
      */
     public long getOrderCount() {
-        ApiDataObject countQuery = connection.get("/orders?limit=1");
-        if (countQuery == null) {
-            return getOrderCount();
-        }
-        long count = (long) countQuery.getDataObject(DATA_FIELD).get("count");
+        long count = pageFetcher.count("/orders");
         log.info("count: " + count);
         return count;
     }
+
+    /**
+     * Asynchronous version of {@link #getOrder(String)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getOrderAsync(String id) {
+        return executor.supply(() -> getOrder(id));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteOrder(String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> deleteOrderAsync(String id) {
+        return connection.requestAsync(RequestType.DELETE, "/orders/" + id, new ApiDataObject().put("id", id))
+                .thenApply(apiResponse -> deleted(id, apiResponse));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllOrders(int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<List<ApiDataObject>> getAllOrdersAsync(int limit) {
+        return executor.supply(() -> getAllOrders(limit));
+    }
+
+    /**
+     * Asynchronous version of {@link #getOrderCount()}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<Long> getOrderCountAsync() {
+        return executor.supply(this::getOrderCount);
+    }
+
+    /**
+     * Asynchronous version of {@link #getOrdersByAccount(String, int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<List<ApiDataObject>> getOrdersByAccountAsync(String accountId, int limit) {
+        return executor.supply(() -> getOrdersByAccount(accountId, limit));
+    }
 }
@@ -1,10 +1,13 @@
 package com.payment.service.swell;
 
 import com.payment.integration.swell.SwellConnection;
+import com.payment.integration.swell.SwellExecutor;
 import com.payment.util.ApiDataObject;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 
 /**
  * An API into Swells back-end Product functions.
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Service;
 public class SwellProductService {
 
     private final SwellConnection connection;
+    private final SwellExecutor executor;
     private static final String PAGE_ENDPOINT = "/products?page=";
 
 
@@ -39,4 +43,39 @@ public class SwellProductService {
     public ApiDataObject getAllProducts(int page, int limit) {
         return connection.get(PAGE_ENDPOINT + page + (limit == 0 ? "" : "&limit=" + limit));
     }
+
+    /**
+     * Asynchronous version of {@link #getAllProducts()}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAllProductsAsync() {
+        return executor.supply(() -> getAllProducts());
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllProducts(int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAllProductsAsync(int page) {
+        return executor.supply(() -> getAllProducts(page));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllProductsWithLimit(int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAllProductsWithLimitAsync(int limit) {
+        return executor.supply(() -> getAllProductsWithLimit(limit));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllProductsWithLimit(int, int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAllProductsWithLimitAsync(int page, int limit) {
+        return executor.supply(() -> getAllProductsWithLimit(page, limit));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllProducts(int, int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getAllProductsAsync(int page, int limit) {
+        return executor.supply(() -> getAllProducts(page, limit));
+    }
 }
@@ -2,23 +2,21 @@ package com.payment.service.swell;
 
 import com.payment.configuration.SwellConfig;
 import com.payment.integration.swell.SwellConnection;
+import com.payment.integration.swell.SwellExecutor;
+import com.payment.integration.swell.SwellPageFetcher;
 import com.payment.util.ApiDataObject;
 import com.payment.util.DateUtility;
-import com.payment.util.JsonDataParser;
+import com.payment.util.RequestType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 /**
@@ -32,6 +30,8 @@ import java.util.concurrent.Executors;
 public class SwellSubscriptionService {
     private static final String DATA_FIELD = "$data";
     private final SwellConnection connection;
+    private final SwellExecutor executor;
+    private final SwellPageFetcher pageFetcher;
 
     /**
      * Fetches a specified subscription from swell.
@@ -43,6 +43,26 @@ public class SwellSubscriptionService {
         return connection.get("/subscriptions/" + id);
     }
 
+    /**
+     * Fetches the latest subscriptions of an account from swell.
+     *
+     * @param accountId - The ID of the account.
+     * @param limit     - The maximum amount of subscriptions returned.
+     * @return The subscriptions of the account, newest first.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ApiDataObject> getSubscriptionsByAccount(String accountId, int limit) {
+        ApiDataObject query = new ApiDataObject()
+                .put("where", new ApiDataObject().put("account_id", accountId))
+                .put("sort", "date_created desc");
+        ApiDataObject response = connection.request(RequestType.GET, "/subscriptions?limit=" + SwellPageFetcher.pageLimit(limit), query);
+        ApiDataObject data = response.getDataObject(DATA_FIELD);
+        if (data == null || !(data.get("results") instanceof List)) {
+            throw new IllegalStateException("Failed to fetch the subscriptions of account " + accountId);
+        }
+        return (List<ApiDataObject>) data.get("results");
+    }
+
 
     /**
      * Delete an individual subscription from swell.
@@ -51,10 +71,11 @@ public class SwellSubscriptionService {
      * @return A response {@link ApiDataObject} stating if the request was successful or not.
      */
     public ApiDataObject deleteSubscription(String id) {
+        return deleted(id, connection.delete("/subscriptions/" + id, new ApiDataObject().put("id", id)));
+    }
+
+    private static ApiDataObject deleted(String id, ApiDataObject apiResponse) {
         ApiDataObject response = new ApiDataObject();
-        ApiDataObject body = new ApiDataObject();
-        body.put("id", id);
-        ApiDataObject apiResponse = connection.delete("/subscriptions/" + id, body);
         if (apiResponse.get(DATA_FIELD) == null) {
             String errorMessage = "Failed to delete subscription " + id;
             log.error(errorMessage);
@@ -82,46 +103,19 @@ public class SwellSubscriptionService {
      * @throws InterruptedException
      */
     public List<ApiDataObject> getAllSubscriptions(int limit) throws InterruptedException {
-        limit = getMaxLimitOrDefault(limit);
-        ApiDataObject countQuery = connection.get("/subscriptions?limit=1");
-        if (countQuery == null) {
-            return getAllSubscriptions(limit);
-        }
-        double count = (long) ((ApiDataObject) countQuery.get(DATA_FIELD)).get("count");
-        log.info("count: " + count);
-        log.info("Preparing subscription data...");
-        List<ApiDataObject> data = new ArrayList<>();
-        int pages = (int) Math.ceil(count / limit);
-        log.info("pages: " + pages);
-        CountDownLatch latch = new CountDownLatch(pages);
-        ExecutorService executor = Executors.newFixedThreadPool(pages);
-        for (int i = 1; i < pages + 1; i++) {
-            final int page = i;
-            final int page_limit = limit;
-            executor.submit(() -> {
-                log.info("Getting data for page: " + page);
-                ApiDataObject query = connection.get("/subscriptions?limit=" + page_limit + "&page=" + page);
-                JSONArray fetchedData = (JSONArray) (query.getDataObject(DATA_FIELD))
-                        .get("results");
-                for (Object fetchedDatum : fetchedData) {
-                    data.add(JsonDataParser.createApiDataObject((JSONObject) fetchedDatum));
-                }
-                latch.countDown();
-            });
-        }
-        latch.await();
-        log.info("Captured Data size: " + data.size());
-        return data;
+        return pageFetcher.fetchAll("/subscriptions", limit);
     }
 
-    private static int getMaxLimitOrDefault(int limit) {
-        if (limit > SwellConfig.FETCH_LIMIT) {
-            limit = SwellConfig.FETCH_LIMIT;
-        }
-        if (limit <= 0) {
-            limit = 25;
-        }
-        return limit;
+
+    /**
+     * Streams all subscriptions from Swell, fetching pages lazily as the stream is consumed, so only
+     * a few pages are held in memory at a time. The stream must be closed when it is not
+     * consumed to the end.
+     *
+     * @param pageSize - The amount of subscriptions per page fetched from swell.
+     */
+    public Stream<ApiDataObject> streamSubscriptions(int pageSize) {
+        return pageFetcher.stream("/subscriptions", pageSize);
     }
 
 
@@ -137,6 +131,10 @@ public class SwellSubscriptionService {
      * @return A response object from Swell.
      */
     public ApiDataObject addSubscription(String accountId, String planId, String paymentMethodId, String productId, String nextPaymentDateUtc, int qty) {
+        return connection.post("/subscriptions", subscriptionBody(accountId, planId, paymentMethodId, productId, nextPaymentDateUtc, qty));
+    }
+
+    private static ApiDataObject subscriptionBody(String accountId, String planId, String paymentMethodId, String productId, String nextPaymentDateUtc, int qty) {
         ApiDataObject body = new ApiDataObject();
         ApiDataObject billing = new ApiDataObject();
         ApiDataObject billingSchedule = new ApiDataObject();
@@ -150,7 +148,7 @@ public class SwellSubscriptionService {
         body.put("quantity", qty);
         body.put("billing", billing);
         body.put("date_trial_end", nextPaymentDateUtc);
-        return connection.post("/subscriptions", body);
+        return body;
     }
 
 
@@ -164,6 +162,18 @@ public class SwellSubscriptionService {
      */
     public ApiDataObject addSubscription(String accountId, String planId, String productId, String paymentMethodId, int qty,
                                          String freqType, LocalDate nextPaymentDate, int alignmentDay, String renewalHour, String renewalMinute, String timezone) {
+        String dateString = nextPaymentDateUtc(qty, freqType, nextPaymentDate, alignmentDay, renewalHour, renewalMinute, timezone);
+        return addSubscription(accountId, planId, paymentMethodId, productId, dateString, qty);
+    }
+
+    /**
+     * Checks the renewal settings of a subscription.
+     *
+     * @return The next payment date in an ISO date time string in UTC time.
+     * @throws IllegalArgumentException when a setting is out of range.
+     */
+    private static String nextPaymentDateUtc(int qty, String freqType, LocalDate nextPaymentDate, int alignmentDay,
+                                             String renewalHour, String renewalMinute, String timezone) {
         if (renewalMinute == null) {
             renewalMinute = "00";
         }
@@ -195,17 +205,73 @@ public class SwellSubscriptionService {
             throw new IllegalArgumentException("Quantity must be equal to or more than 1.");
         }
         LocalDate newPaymentDate = DateUtility.getNearestDay(nextPaymentDate, alignmentDay);
-        String dateString = DateUtility.timezoneToUTCStringFromCustomInput(newPaymentDate.toString(), renewalHour, renewalMinute, timezone);
-        return addSubscription(accountId, planId, paymentMethodId, productId, dateString, qty);
+        return DateUtility.timezoneToUTCStringFromCustomInput(newPaymentDate.toString(), renewalHour, renewalMinute, timezone);
     }
 
     /**
      * @return A number of how many registered subscriptions there are.
      */
     public long getSubscriptionCount() {
-        ApiDataObject countQuery = connection.get("/subscriptions?limit=1");
-        long count = (long) (countQuery.getDataObject(DATA_FIELD)).get("count");
+        long count = pageFetcher.count("/subscriptions");
         log.info("count: " + count);
         return count;
     }
+
+    /**
+     * Asynchronous version of {@link #getSubscription(String)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<ApiDataObject> getSubscriptionAsync(String id) {
+        return executor.supply(() -> getSubscription(id));
+    }
+
+    /**
+     * Asynchronous version of {@link #deleteSubscription(String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> deleteSubscriptionAsync(String id) {
+        return connection.requestAsync(RequestType.DELETE, "/subscriptions/" + id, new ApiDataObject().put("id", id))
+                .thenApply(apiResponse -> deleted(id, apiResponse));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllSubscriptions(int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<List<ApiDataObject>> getAllSubscriptionsAsync(int limit) {
+        return executor.supply(() -> getAllSubscriptions(limit));
+    }
+
+    /**
+     * Asynchronous version of {@link #addSubscription(String, String, String, String, String, int)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     */
+    public CompletableFuture<ApiDataObject> addSubscriptionAsync(String accountId, String planId, String paymentMethodId, String productId, String nextPaymentDateUtc, int qty) {
+        return connection.requestAsync(RequestType.POST, "/subscriptions",
+                subscriptionBody(accountId, planId, paymentMethodId, productId, nextPaymentDateUtc, qty));
+    }
+
+    /**
+     * Asynchronous version of {@link #addSubscription(String, String, String, String, int, String, LocalDate, int, String, String, String)}, sent with
+     * {@link SwellConnection#requestAsync}.
+     *
+     * @throws IllegalArgumentException when a renewal setting is out of range.
+     */
+    public CompletableFuture<ApiDataObject> addSubscriptionAsync(String accountId, String planId, String productId, String paymentMethodId, int qty,
+                                                                 String freqType, LocalDate nextPaymentDate, int alignmentDay, String renewalHour, String renewalMinute, String timezone) {
+        String dateString = nextPaymentDateUtc(qty, freqType, nextPaymentDate, alignmentDay, renewalHour, renewalMinute, timezone);
+        return addSubscriptionAsync(accountId, planId, paymentMethodId, productId, dateString, qty);
+    }
+
+    /**
+     * Asynchronous version of {@link #getSubscriptionCount()}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<Long> getSubscriptionCountAsync() {
+        return executor.supply(this::getSubscriptionCount);
+    }
+
+    /**
+     * Asynchronous version of {@link #getSubscriptionsByAccount(String, int)}, run on the {@link SwellExecutor}.
+     */
+    public CompletableFuture<List<ApiDataObject>> getSubscriptionsByAccountAsync(String accountId, int limit) {
+        return executor.supply(() -> getSubscriptionsByAccount(accountId, limit));
+    }
 }
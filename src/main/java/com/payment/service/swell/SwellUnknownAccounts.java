@@ -0,0 +1,192 @@
+package com.payment.service.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import com.payment.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Answers "does this account exist?" locally when it can, so lookups of unknown emails (bots,
+ * typos) are rejected without a round trip to Swell.
+ * <p>
+ * Two sources are used:
+ * <ul>
+ *     <li>A short-lived negative cache of ids and emails Swell recently reported as unknown.</li>
+ *     <li>Optionally, a Bloom filter of every known email, built from a full account fetch or
+ *     sync and extended by incremental syncs and accounts created here. An account registered
+ *     elsewhere is only known to it after the next sync, so it is only trusted while the sync
+ *     is enabled, once it has been built from a full fetch, and as long as the accounts were
+ *     synced within {@code api.swell.accounts.bloom.maxStalenessMs}.</li>
+ * </ul>
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellUnknownAccounts {
+    private final long negativeTtlMs;
+    private final int negativeMaxEntries;
+    private final boolean bloomEnabled;
+    private final long bloomExpectedEmails;
+    private final double bloomFalsePositiveRate;
+    private final long bloomMaxStalenessMs;
+    private final Map<String, Long> unknownUntil = new ConcurrentHashMap<>();
+    private volatile BloomFilter knownEmails;
+    private volatile Rebuild rebuilding;
+    private volatile long syncedAt;
+
+    public SwellUnknownAccounts(SwellConfig config) {
+        this.negativeTtlMs = config.getAccountsNegativeTtlMs();
+        this.negativeMaxEntries = config.getAccountsNegativeMaxEntries();
+        // Without the sync, the filter would never learn of accounts registered elsewhere.
+        this.bloomEnabled = config.isAccountsBloomEnabled() && config.isSyncEnabled();
+        this.bloomExpectedEmails = config.getAccountsBloomExpectedEmails();
+        this.bloomFalsePositiveRate = config.getAccountsBloomFalsePositiveRate();
+        this.bloomMaxStalenessMs = config.getAccountsBloomMaxStalenessMs();
+    }
+
+    /**
+     * @param idOrEmail - The id or the email address of an account.
+     * @return Whether the account is known not to exist, without asking Swell.
+     */
+    public boolean isKnownMissing(String idOrEmail) {
+        String key = key(idOrEmail);
+        Long until = unknownUntil.get(key);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return true;
+            }
+            unknownUntil.remove(key, until);
+        }
+        BloomFilter filter = knownEmails;
+        return filter != null && key.indexOf('@') > 0 && isFresh() && !filter.mightContain(key);
+    }
+
+    private boolean isFresh() {
+        return System.currentTimeMillis() - syncedAt <= bloomMaxStalenessMs;
+    }
+
+    /**
+     * Records that the accounts were synced, every account changed since the previous sync
+     * having been recorded.
+     */
+    public void recordSynced() {
+        syncedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Remembers that Swell reported the account as unknown, for {@code api.swell.accounts.negativeTtlMs}.
+     */
+    public void recordMissing(String idOrEmail) {
+        if (negativeTtlMs <= 0) {
+            return;
+        }
+        if (unknownUntil.size() >= negativeMaxEntries) {
+            long now = System.currentTimeMillis();
+            unknownUntil.values().removeIf(until -> until <= now);
+            if (unknownUntil.size() >= negativeMaxEntries) {
+                return;
+            }
+        }
+        unknownUntil.put(key(idOrEmail), System.currentTimeMillis() + negativeTtlMs);
+    }
+
+    /**
+     * Records accounts that exist, e.g. created here or fetched by a sync, so they are never
+     * rejected locally.
+     */
+    public void recordAccounts(Collection<ApiDataObject> accounts) {
+        for (ApiDataObject account : accounts) {
+            Object email = account.get("email");
+            if (email != null) {
+                recordExisting(email.toString());
+            }
+            Object id = account.get("id");
+            if (id != null) {
+                unknownUntil.remove(key(id.toString()));
+            }
+        }
+    }
+
+    /**
+     * Records an email address that has an account.
+     */
+    public void recordExisting(String email) {
+        String key = key(email);
+        unknownUntil.remove(key);
+        BloomFilter filter = knownEmails;
+        if (filter != null) {
+            filter.add(key);
+        }
+        Rebuild rebuild = rebuilding;
+        if (rebuild != null) {
+            rebuild.filter.add(key);
+        }
+    }
+
+    /**
+     * Starts building the Bloom filter again from a full account fetch.
+     *
+     * @return The rebuild every fetched account must be added to, to be closed once the fetch is
+     * over, or null when the Bloom filter is disabled.
+     */
+    public Rebuild startRebuild() {
+        if (!bloomEnabled) {
+            return null;
+        }
+        Rebuild rebuild = new Rebuild(new BloomFilter(bloomExpectedEmails, bloomFalsePositiveRate));
+        rebuilding = rebuild;
+        return rebuild;
+    }
+
+    private static String key(String idOrEmail) {
+        return idOrEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A Bloom filter being built from a full fetch, only used once the fetch completed.
+     */
+    public final class Rebuild implements AutoCloseable {
+        private final BloomFilter filter;
+
+        private Rebuild(BloomFilter filter) {
+            this.filter = filter;
+        }
+
+        public void add(Collection<ApiDataObject> accounts) {
+            for (ApiDataObject account : accounts) {
+                Object email = account.get("email");
+                if (email != null) {
+                    filter.add(key(email.toString()));
+                }
+            }
+        }
+
+        /**
+         * Starts rejecting emails the completed fetch did not contain.
+         */
+        public void complete() {
+            knownEmails = filter;
+            recordSynced();
+            close();
+            log.info("Rebuilt the filter of known swell account emails");
+        }
+
+        /**
+         * Stops adding recorded emails to the rebuild, e.g. when the fetch failed.
+         */
+        @Override
+        public void close() {
+            if (rebuilding == this) {
+                rebuilding = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.payment.service.swell.sync;
+
+import com.payment.util.ApiDataObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * A {@link SwellReplica} held on the heap, rebuilt by a full sync on every start.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@ConditionalOnProperty(name = "api.swell.replica.store", havingValue = "memory", matchIfMissing = true)
+public class InMemorySwellReplica implements SwellReplica {
+    private final Map<String, Map<String, ApiDataObject>> collections = new ConcurrentHashMap<>();
+    private final Map<String, String> accountIdsByEmail = new ConcurrentHashMap<>();
+    private final Map<String, String> emailsByAccountId = new ConcurrentHashMap<>();
+
+    @Override
+    public void upsert(String collection, Collection<ApiDataObject> records) {
+        Map<String, ApiDataObject> stored = collections.computeIfAbsent(collection, c -> new ConcurrentHashMap<>());
+        for (ApiDataObject record : records) {
+            Object id = record.get("id");
+            if (id != null) {
+                stored.put(id.toString(), record);
+                if (ACCOUNTS.equals(collection)) {
+                    indexEmail(id.toString(), record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Points the email of an account at it, dropping the email it had before.
+     */
+    private synchronized void indexEmail(String id, ApiDataObject account) {
+        String previousEmail = emailsByAccountId.remove(id);
+        if (previousEmail != null) {
+            accountIdsByEmail.remove(previousEmail, id);
+        }
+        Object email = account.get("email");
+        if (email != null) {
+            String key = email.toString().toLowerCase(Locale.ROOT);
+            accountIdsByEmail.put(key, id);
+            emailsByAccountId.put(id, key);
+        }
+    }
+
+    @Override
+    public ApiDataObject get(String collection, String id) {
+        Map<String, ApiDataObject> stored = collections.get(collection);
+        ApiDataObject record = stored == null ? null : stored.get(id);
+        return record == null ? null : record.deepCopy();
+    }
+
+    @Override
+    public ApiDataObject findAccount(String idOrEmail) {
+        ApiDataObject account = get(ACCOUNTS, idOrEmail);
+        if (account != null) {
+            return account;
+        }
+        String id = accountIdsByEmail.get(idOrEmail.toLowerCase(Locale.ROOT));
+        return id == null ? null : get(ACCOUNTS, id);
+    }
+
+    @Override
+    public long size(String collection) {
+        Map<String, ApiDataObject> stored = collections.get(collection);
+        return stored == null ? 0 : stored.size();
+    }
+}
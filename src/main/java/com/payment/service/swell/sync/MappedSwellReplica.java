@@ -0,0 +1,301 @@
+package com.payment.service.swell.sync;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.JsonDataParseException;
+import com.payment.util.ApiDataObject;
+import com.payment.util.JsonDataParser;
+import com.payment.util.JsonDataWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * A {@link SwellReplica} stored on disk, so it survives restarts and the sync carries on
+ * from its watermark instead of fetching everything again.
+ * <p>
+ * Every collection is an append-only log of records in a memory-mapped file, each record a
+ * length followed by its JSON. An updated record is appended again and the in-memory index
+ * of id (and email, for accounts) to file offset moves to the new copy, so a lookup is one
+ * hash lookup and one parse of a mapped record. The index is rebuilt by scanning the file on
+ * startup, which also compacts the file when most of it is superseded records.
+ * <p>
+ * A mapped file is limited to 2GB per collection.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@ConditionalOnProperty(name = "api.swell.replica.store", havingValue = "mapped")
+@Slf4j
+public class MappedSwellReplica implements SwellReplica {
+    private static final String FILE_SUFFIX = ".replica";
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private final Path directory;
+    private final Map<String, RecordLog> logs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MappedSwellReplica(SwellConfig config) {
+        this(Paths.get(config.getSyncDataDir()));
+    }
+
+    MappedSwellReplica(Path directory) {
+        this.directory = directory;
+        // Accounts are read on the hot path, so their index is ready before the first request.
+        log(ACCOUNTS);
+    }
+
+    @Override
+    public void upsert(String collection, Collection<ApiDataObject> records) {
+        log(collection).append(records);
+    }
+
+    @Override
+    public ApiDataObject get(String collection, String id) {
+        return log(collection).byId(id);
+    }
+
+    @Override
+    public ApiDataObject findAccount(String idOrEmail) {
+        RecordLog accounts = log(ACCOUNTS);
+        ApiDataObject account = accounts.byId(idOrEmail);
+        return account != null ? account : accounts.byEmail(idOrEmail);
+    }
+
+    @Override
+    public long size(String collection) {
+        return log(collection).size();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (RecordLog recordLog : logs.values()) {
+            recordLog.close();
+        }
+    }
+
+    private RecordLog log(String collection) {
+        return logs.computeIfAbsent(collection, c -> {
+            try {
+                Files.createDirectories(directory);
+                return new RecordLog(directory.resolve(c.replaceAll("[^A-Za-z0-9_-]", "") + FILE_SUFFIX), ACCOUNTS.equals(c));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the swell replica of " + c, e);
+            }
+        });
+    }
+
+    /**
+     * The mapped, append-only file of one collection and its index.
+     */
+    private static final class RecordLog implements Closeable {
+        private final Path file;
+        private final boolean indexEmails;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> offsetsById = new HashMap<>();
+        private final Map<String, String> idsByEmail = new HashMap<>();
+        private final Map<String, String> emailsById = new HashMap<>();
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int end;
+        private long liveBytes;
+
+        RecordLog(Path file, boolean indexEmails) throws IOException {
+            this.file = file;
+            this.indexEmails = indexEmails;
+            open();
+            if (end > INITIAL_CAPACITY && liveBytes < end / 2) {
+                compact();
+            }
+            log.info("Loaded {} records from the swell replica {}", offsetsById.size(), file);
+        }
+
+        ApiDataObject byId(String id) {
+            lock.readLock().lock();
+            try {
+                Integer offset = offsetsById.get(id);
+                return offset == null ? null : read(offset);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        ApiDataObject byEmail(String email) {
+            lock.readLock().lock();
+            try {
+                String id = idsByEmail.get(email.toLowerCase(Locale.ROOT));
+                return id == null ? null : read(offsetsById.get(id));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long size() {
+            lock.readLock().lock();
+            try {
+                return offsetsById.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void append(Collection<ApiDataObject> records) {
+            lock.writeLock().lock();
+            try {
+                for (ApiDataObject record : records) {
+                    Object id = record.get("id");
+                    if (id != null) {
+                        write(id.toString(), record);
+                    }
+                }
+                buffer.force();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to the swell replica " + file, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.writeLock().lock();
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close the swell replica {}", file, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_CAPACITY, channel.size()));
+            end = 0;
+            liveBytes = 0;
+            offsetsById.clear();
+            idsByEmail.clear();
+            emailsById.clear();
+            while (end + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(end);
+                if (length <= 0 || end + HEADER_BYTES + length > buffer.capacity()) {
+                    break;
+                }
+                ApiDataObject record;
+                try {
+                    record = read(end);
+                } catch (JsonDataParseException e) {
+                    break;
+                }
+                Object id = record == null ? null : record.get("id");
+                if (id == null) {
+                    break;
+                }
+                index(id.toString(), record, end, HEADER_BYTES + length);
+                end += HEADER_BYTES + length;
+            }
+            if (end + HEADER_BYTES <= buffer.capacity() && buffer.getInt(end) != 0) {
+                // A record torn by a crash, zero the tail so it is never read as a record.
+                log.warn("Discarding a damaged tail of the swell replica {} at offset {}", file, end);
+                for (int position = end; position < buffer.capacity(); position++) {
+                    buffer.put(position, (byte) 0);
+                }
+                buffer.force();
+            }
+        }
+
+        // Rewrites the file with only the latest copy of every record.
+        private void compact() throws IOException {
+            List<ApiDataObject> live = new ArrayList<>(offsetsById.size());
+            offsetsById.values().stream().sorted().forEach(offset -> live.add(read(offset)));
+            Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+            Files.deleteIfExists(compacted);
+            RecordLog target = new RecordLog(compacted, indexEmails);
+            target.append(live);
+            target.close();
+            channel.close();
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            open();
+        }
+
+        private void write(String id, ApiDataObject record) throws IOException {
+            byte[] json = JsonDataWriter.toJson(record).getBytes(StandardCharsets.UTF_8);
+            int recordBytes = HEADER_BYTES + json.length;
+            ensureCapacity((long) end + recordBytes + HEADER_BYTES);
+            ByteBuffer target = buffer.duplicate();
+            target.position(end + HEADER_BYTES);
+            target.put(json);
+            // The length goes last, so a record torn by a crash is never seen as complete.
+            buffer.putInt(end, json.length);
+            index(id, record, end, recordBytes);
+            end += recordBytes;
+        }
+
+        private void index(String id, ApiDataObject record, int offset, int recordBytes) {
+            Integer previous = offsetsById.put(id, offset);
+            if (previous != null) {
+                liveBytes -= HEADER_BYTES + buffer.getInt(previous);
+            }
+            liveBytes += recordBytes;
+            if (!indexEmails) {
+                return;
+            }
+            String previousEmail = emailsById.remove(id);
+            if (previousEmail != null) {
+                idsByEmail.remove(previousEmail, id);
+            }
+            Object email = record.get("email");
+            if (email != null) {
+                String key = email.toString().toLowerCase(Locale.ROOT);
+                idsByEmail.put(key, id);
+                emailsById.put(id, key);
+            }
+        }
+
+        private void ensureCapacity(long required) throws IOException {
+            if (required <= buffer.capacity()) {
+                return;
+            }
+            if (required > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The swell replica " + file + " is full");
+            }
+            long capacity = Math.min(Integer.MAX_VALUE, Math.max(required, (long) buffer.capacity() * 2));
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        private ApiDataObject read(int offset) {
+            int length = buffer.getInt(offset);
+            ByteBuffer json = buffer.duplicate();
+            json.position(offset + HEADER_BYTES);
+            json.limit(offset + HEADER_BYTES + length);
+            return JsonDataParser.parse(StandardCharsets.UTF_8.decode(json).toString());
+        }
+    }
+}
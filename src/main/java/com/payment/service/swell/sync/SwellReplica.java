@@ -0,0 +1,43 @@
+package com.payment.service.swell.sync;
+
+import com.payment.util.ApiDataObject;
+
+import java.util.Collection;
+
+
+/**
+ * A local copy of Swell records, kept up to date by the {@link SwellSyncService}. Records
+ * returned are the caller's own, changing them never changes the replica.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public interface SwellReplica {
+    String ACCOUNTS = "/accounts";
+
+    /**
+     * Inserts the records, or replaces the stored ones with the same id.
+     *
+     * @param collection - The collection path the records belong to, e.g. "/accounts".
+     * @param records    - The records as returned by Swell.
+     */
+    void upsert(String collection, Collection<ApiDataObject> records);
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @param id         - The id of the record.
+     * @return The stored record, or null when it is not in the replica.
+     */
+    ApiDataObject get(String collection, String id);
+
+    /**
+     * @param idOrEmail - The id or the email address of an account, emails match case-insensitively.
+     * @return The stored account, or null when it is not in the replica.
+     */
+    ApiDataObject findAccount(String idOrEmail);
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @return How many records of the collection are stored.
+     */
+    long size(String collection);
+}
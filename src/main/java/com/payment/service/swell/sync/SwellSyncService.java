@@ -0,0 +1,138 @@
+package com.payment.service.swell.sync;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.integration.swell.SwellPageFetcher;
+import com.payment.integration.swell.SwellPageIterator;
+import com.payment.service.swell.SwellUnknownAccounts;
+import com.payment.util.ApiDataObject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Keeps the {@link SwellReplica} up to date by fetching only the records changed since the
+ * last sync.
+ * <p>
+ * Every collection has a {@code date_updated} high-water mark. A sync asks Swell for the
+ * records updated at or after the mark (minus {@code api.swell.sync.overlapMs}, to catch
+ * records that moved between pages while the previous sync was paging), merges them into the
+ * replica and only then advances the mark, so a failed sync is simply repeated. The first
+ * sync of a collection, or a sync into an empty replica, fetches everything.
+ * <p>
+ * Records deleted in Swell are not seen by a delta sync and stay in the replica.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SwellSyncService {
+    public static final List<String> COLLECTIONS = Arrays.asList("/accounts", "/orders");
+    private static final String UPDATED_FIELD = "date_updated";
+    private static final String CREATED_FIELD = "date_created";
+
+    private final SwellConfig config;
+    private final SwellPageFetcher pageFetcher;
+    private final SwellReplica replica;
+    private final SwellSyncWatermarks watermarks;
+    private final SwellUnknownAccounts unknownAccounts;
+
+    /**
+     * Syncs every collection, on the {@code api.swell.sync.intervalMs} schedule when the sync
+     * is enabled.
+     */
+    @Scheduled(initialDelayString = "${api.swell.sync.intervalMs}", fixedDelayString = "${api.swell.sync.intervalMs}")
+    public void scheduledSync() {
+        if (!config.isSyncEnabled()) {
+            return;
+        }
+        for (String collection : COLLECTIONS) {
+            try {
+                sync(collection);
+            } catch (RuntimeException e) {
+                log.error("Sync of {} failed, it is retried on the next run", collection, e);
+            }
+        }
+    }
+
+    /**
+     * Merges the records of a collection changed since the last sync into the replica.
+     *
+     * @param collection - The collection path, e.g. "/accounts".
+     * @return How many records were merged.
+     */
+    public synchronized long sync(String collection) {
+        String watermark = watermarks.get(collection);
+        if (watermark != null && replica.size(collection) == 0) {
+            // The replica lost its data, e.g. an in-memory one after a restart.
+            watermark = null;
+        }
+        ApiDataObject query = new ApiDataObject().put("sort", UPDATED_FIELD + " asc");
+        if (watermark != null) {
+            query.put("where", new ApiDataObject().put(UPDATED_FIELD, new ApiDataObject().put("$gte", since(watermark))));
+        }
+
+        boolean accounts = SwellReplica.ACCOUNTS.equals(collection);
+        // A full sync of the accounts is a complete list of the known emails.
+        long merged = 0;
+        String latest = watermark;
+        try (SwellUnknownAccounts.Rebuild rebuild = accounts && watermark == null ? unknownAccounts.startRebuild() : null;
+             SwellPageIterator pages = pageFetcher.pages(collection, SwellConfig.FETCH_LIMIT, query)) {
+            while (pages.hasNext()) {
+                List<ApiDataObject> records = pages.next();
+                replica.upsert(collection, records);
+                if (accounts) {
+                    unknownAccounts.recordAccounts(records);
+                }
+                if (rebuild != null) {
+                    rebuild.add(records);
+                }
+                merged += records.size();
+                for (ApiDataObject record : records) {
+                    latest = later(latest, updatedAt(record));
+                }
+            }
+            if (rebuild != null) {
+                rebuild.complete();
+            }
+        }
+        if (accounts) {
+            unknownAccounts.recordSynced();
+        }
+        watermarks.set(collection, latest);
+        log.info("Synced {} changed records of {}, watermark {}", merged, collection, latest);
+        return merged;
+    }
+
+    // The watermark moved back by the overlap, re-fetching a little rather than missing records.
+    private String since(String watermark) {
+        try {
+            return Instant.parse(watermark).minusMillis(config.getSyncOverlapMs()).toString();
+        } catch (DateTimeParseException e) {
+            return watermark;
+        }
+    }
+
+    private static String updatedAt(ApiDataObject record) {
+        Object updated = record.get(UPDATED_FIELD);
+        if (updated == null) {
+            updated = record.get(CREATED_FIELD);
+        }
+        return updated == null ? null : updated.toString();
+    }
+
+    // Swell dates are ISO-8601 UTC strings, so they order like strings.
+    private static String later(String current, String candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) > 0 ? candidate : current;
+    }
+}
@@ -0,0 +1,79 @@
+package com.payment.service.swell.sync;
+
+import com.payment.configuration.SwellConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+
+/**
+ * The {@code date_updated} high-water mark of every synced collection, persisted to a
+ * properties file so a restart carries on from the last successful sync.
+ * <p>
+ * The file is rewritten through a temporary file and an atomic move, so a crash mid-write
+ * never leaves a broken watermark behind.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+@Component
+@Slf4j
+public class SwellSyncWatermarks {
+    private static final String FILE_NAME = "swell-sync.properties";
+
+    private final Path file;
+    private final Properties watermarks = new Properties();
+
+    public SwellSyncWatermarks(SwellConfig config) {
+        this(Paths.get(config.getSyncDataDir()));
+    }
+
+    SwellSyncWatermarks(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                watermarks.load(reader);
+            } catch (IOException e) {
+                log.warn("Could not read the swell sync watermarks from {}, syncing everything again", file, e);
+            }
+        }
+    }
+
+    /**
+     * @param collection - The collection path, e.g. "/accounts".
+     * @return The latest {@code date_updated} synced, or null when the collection was never synced.
+     */
+    public synchronized String get(String collection) {
+        return watermarks.getProperty(collection);
+    }
+
+    /**
+     * Stores the watermark of a collection, or forgets it when null.
+     */
+    public synchronized void set(String collection, String watermark) {
+        if (watermark == null) {
+            watermarks.remove(collection);
+        } else {
+            watermarks.setProperty(collection, watermark);
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                watermarks.store(writer, "Swell sync watermarks");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not persist the swell sync watermarks to " + file, e);
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.payment.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
 
 /**
  * 
@@ -30,6 +35,15 @@ public class ApiDataObject extends Object implements Map<String, Object> {
 	}
 	
 	
+	/**
+	 * @return An empty data object backed by a {@link CompactDataMap}, for records that are
+	 * built in bulk with the same keys, e.g. parsed Swell responses.
+	 */
+	public static ApiDataObject compact() {
+		return new ApiDataObject(new CompactDataMap());
+	}
+	
+	
 	/**
 	 * Returns how many main keys are stored in the object.
 	 */
@@ -142,30 +156,48 @@ public class ApiDataObject extends Object implements Map<String, Object> {
 
 	
 	/**
-	 * Constructs the data object into a JSON string.
+	 * @return A copy of the data object where nested objects and lists are copied too, so
+	 * changes to the copy never reach the original.
 	 */
-	@Override 
-	public String toString() {
+	public ApiDataObject deepCopy() {
+		ApiDataObject copy = data instanceof CompactDataMap ? compact() : new ApiDataObject();
+		for (Map.Entry<String, Object> entry : data.entrySet()) {
+			copy.put(entry.getKey(), copyValue(entry.getValue()));
+		}
+		return copy;
+	}
+	
 	
-		String string = "{";
-		
-		int idx = 0;
-		
-		for (String i : data.keySet()) {
-			
-			if (idx != 0) {
-				string +=",";
+	@SuppressWarnings("unchecked")
+	private static Object copyValue(Object value) {
+		if (value instanceof ApiDataObject) {
+			return ((ApiDataObject) value).deepCopy();
+		}
+		if (value instanceof JSONObject) {
+			JSONObject copy = new JSONObject();
+			for (Object entry : ((JSONObject) value).entrySet()) {
+				Map.Entry<Object, Object> mapEntry = (Map.Entry<Object, Object>) entry;
+				copy.put(mapEntry.getKey(), copyValue(mapEntry.getValue()));
+			}
+			return copy;
+		}
+		if (value instanceof List) {
+			List<Object> copy = value instanceof JSONArray ? new JSONArray() : new ArrayList<>();
+			for (Object element : (List<Object>) value) {
+				copy.add(copyValue(element));
 			}
-			
-			string+="\"" + i + "\":" +  (data.get(i) == null ? "null" : (data.get(i) instanceof String ? ("\"" + data.get(i).getClass().cast(data.get(i).toString()) + "\"") : data.get(i).getClass().cast(data.get(i)).toString()));
-			
-			idx++;
-			
+			return copy;
 		}
-		
-		string += "}";
-		
-		return string;
+		return value;
+	}
+	
+	
+	/**
+	 * Constructs the data object into a JSON string.
+	 */
+	@Override 
+	public String toString() {
+		return JsonDataWriter.toJson(this);
 	}
 	
 
@@ -0,0 +1,93 @@
+package com.payment.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ *
+ * A thread safe Bloom filter of strings. {@link #mightContain(String)} never misses a string
+ * that was added, and answers true for a string that was not added with roughly the false
+ * positive probability it was sized for.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public class BloomFilter {
+
+
+	// The combined hashes are ints, so at most 2^31 bits (256MB) are addressable.
+	private static final int MAX_WORDS = 1 << 25;
+
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+
+
+	/**
+	 * @param expectedInsertions - How many strings the filter is sized for.
+	 * @param falsePositiveRate - The false positive probability at that size, e.g. 0.01.
+	 */
+	public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long expected = Math.max(1, expectedInsertions);
+		long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bits = new AtomicLongArray((int) Math.min(MAX_WORDS, (Math.max(64, optimalBits) + 63) / 64));
+		this.bitCount = (long) bits.length() * 64;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+	}
+
+
+	/**
+	 * Adds a string to the filter.
+	 */
+	public void add(String value) {
+		long hash = hash(value);
+		int first = (int) hash;
+		int second = (int) (hash >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = index(first + i * second);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+				// Another bit of the word changed, try again.
+			}
+		}
+	}
+
+
+	/**
+	 * @return False when the string was definitely never added.
+	 */
+	public boolean mightContain(String value) {
+		long hash = hash(value);
+		int first = (int) hash;
+		int second = (int) (hash >>> 32);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = index(first + i * second);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	private long index(int combinedHash) {
+		return (combinedHash & Integer.MAX_VALUE) % bitCount;
+	}
+
+
+	// 64 bit FNV-1a of the UTF-8 bytes, mixed so both halves are usable as hashes.
+	private static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
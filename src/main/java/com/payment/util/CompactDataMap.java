@@ -0,0 +1,370 @@
+package com.payment.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ *
+ * A memory compact map for records that share their keys, e.g. every account of a Swell page.
+ *
+ * The keys live in a shared, immutable {@link KeyShape} and the map itself only holds an
+ * array of values. Maps that are built by putting the same keys in the same order end up on
+ * the same shape, so the key strings and the lookup index are stored once for all of them
+ * instead of a hash map node and a key string per field per record.
+ *
+ * Shapes are never freed, so their number is bounded: once {@link #MAX_SHAPES} exist, or a
+ * map grows past {@link #MAX_SHAPE_KEYS} keys, the map falls back to a plain {@link HashMap}.
+ *
+ * Like {@link HashMap}, instances are not thread safe, but the shapes may be shared freely.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+final class CompactDataMap extends AbstractMap<String, Object> {
+
+
+	// Upper bound on shapes across the application, so odd payloads can't grow them forever.
+	static final int MAX_SHAPES = 4096;
+
+	// Objects with more keys than this are not worth a shape of their own.
+	static final int MAX_SHAPE_KEYS = 64;
+
+	// Shapes with more keys than this get a hash index instead of a linear scan.
+	private static final int INDEXED_SHAPE_KEYS = 8;
+
+	private static final Object[] NO_VALUES = new Object[0];
+
+	private static final AtomicInteger shapeCount = new AtomicInteger(1);
+
+	private static final KeyShape ROOT = new KeyShape(new String[0]);
+
+
+	// The keys of the map, null once it fell back to the dictionary.
+	private KeyShape shape = ROOT;
+	private Object[] values = NO_VALUES;
+
+	// The fallback for maps that can't use a shape.
+	private Map<String, Object> dictionary;
+
+	private int modCount;
+
+
+	@Override
+	public int size() {
+		return dictionary != null ? dictionary.size() : shape.keys.length;
+	}
+
+
+	@Override
+	public boolean containsKey(Object key) {
+		return dictionary != null ? dictionary.containsKey(key) : shape.indexOf(key) >= 0;
+	}
+
+
+	@Override
+	public Object get(Object key) {
+		if (dictionary != null) {
+			return dictionary.get(key);
+		}
+		int index = shape.indexOf(key);
+		return index >= 0 ? values[index] : null;
+	}
+
+
+	@Override
+	public Object put(String key, Object value) {
+		if (dictionary != null) {
+			return dictionary.put(key, value);
+		}
+		int index = shape.indexOf(key);
+		if (index >= 0) {
+			Object previous = values[index];
+			values[index] = value;
+			return previous;
+		}
+		KeyShape next = shape.keys.length < MAX_SHAPE_KEYS ? shape.with(key) : null;
+		if (next == null) {
+			toDictionary().put(key, value);
+			return null;
+		}
+		int size = shape.keys.length;
+		if (values.length == size) {
+			values = Arrays.copyOf(values, Math.max(4, size + (size >> 1) + 1));
+		}
+		values[size] = value;
+		shape = next;
+		modCount++;
+		return null;
+	}
+
+
+	@Override
+	public Object remove(Object key) {
+		if (dictionary != null) {
+			return dictionary.remove(key);
+		}
+		int index = shape.indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		Object previous = values[index];
+		removeAt(index);
+		return previous;
+	}
+
+
+	@Override
+	public void clear() {
+		dictionary = null;
+		shape = ROOT;
+		values = NO_VALUES;
+		modCount++;
+	}
+
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new EntrySet();
+	}
+
+
+	// Rebuilds the shape without the key at the index, sharing shapes with maps that never had it.
+	private void removeAt(int index) {
+		String[] keys = shape.keys;
+		KeyShape next = ROOT;
+		for (int i = 0; i < keys.length && next != null; i++) {
+			if (i != index) {
+				next = next.with(keys[i]);
+			}
+		}
+		if (next == null) {
+			toDictionary().remove(keys[index]);
+			return;
+		}
+		System.arraycopy(values, index + 1, values, index, keys.length - index - 1);
+		values[keys.length - 1] = null;
+		shape = next;
+		modCount++;
+	}
+
+
+	private Map<String, Object> toDictionary() {
+		Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < shape.keys.length; i++) {
+			map.put(shape.keys[i], values[i]);
+		}
+		dictionary = map;
+		shape = null;
+		values = null;
+		modCount++;
+		return map;
+	}
+
+
+	/**
+	 * An immutable, shared list of keys, and the shapes reached from it by adding one more key.
+	 */
+	static final class KeyShape {
+
+		private final String[] keys;
+		private final Map<String, Integer> index;
+		private final ConcurrentHashMap<String, KeyShape> transitions = new ConcurrentHashMap<>();
+
+
+		private KeyShape(String[] keys) {
+			this.keys = keys;
+			if (keys.length > INDEXED_SHAPE_KEYS) {
+				index = new HashMap<>(keys.length * 2);
+				for (int i = 0; i < keys.length; i++) {
+					index.put(keys[i], i);
+				}
+			} else {
+				index = null;
+			}
+		}
+
+
+		int indexOf(Object key) {
+			if (index != null) {
+				Integer position = index.get(key);
+				return position != null ? position : -1;
+			}
+			// Keys of the same shape are the same instance, so identity usually hits first.
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] == key) {
+					return i;
+				}
+			}
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i].equals(key)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+
+		/**
+		 * @return The shape with the key appended, or null when no more shapes may be created.
+		 */
+		KeyShape with(String key) {
+			KeyShape next = transitions.get(key);
+			if (next != null) {
+				return next;
+			}
+			if (shapeCount.get() >= MAX_SHAPES) {
+				return null;
+			}
+			return transitions.computeIfAbsent(key, k -> {
+				shapeCount.incrementAndGet();
+				String[] nextKeys = Arrays.copyOf(keys, keys.length + 1);
+				nextKeys[keys.length] = k;
+				return new KeyShape(nextKeys);
+			});
+		}
+	}
+
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public int size() {
+			return CompactDataMap.this.size();
+		}
+
+
+		@Override
+		public void clear() {
+			CompactDataMap.this.clear();
+		}
+
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			if (dictionary != null) {
+				return dictionary.entrySet().iterator();
+			}
+			return new EntryIterator();
+		}
+	}
+
+
+	private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+		private int next;
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+
+		@Override
+		public boolean hasNext() {
+			return next < size();
+		}
+
+
+		@Override
+		public Map.Entry<String, Object> next() {
+			checkForComodification();
+			if (next >= shape.keys.length) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return new Entry(last);
+		}
+
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			removeAt(last);
+			if (dictionary != null) {
+				// Can't keep iterating the values once they moved to the dictionary.
+				expectedModCount = -1;
+				return;
+			}
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+
+	private final class Entry implements Map.Entry<String, Object> {
+
+		private final String key;
+		private final int index;
+		private final KeyShape entryShape = shape;
+
+
+		private Entry(int index) {
+			this.key = shape.keys[index];
+			this.index = index;
+		}
+
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+
+		@Override
+		public Object getValue() {
+			return entryShape == shape ? values[index] : CompactDataMap.this.get(key);
+		}
+
+
+		@Override
+		public Object setValue(Object value) {
+			if (entryShape == shape) {
+				Object previous = values[index];
+				values[index] = value;
+				return previous;
+			}
+			return CompactDataMap.this.put(key, value);
+		}
+
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+			Object value = getValue();
+			return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+		}
+
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+
+		@Override
+		public String toString() {
+			return key + "=" + getValue();
+		}
+	}
+}
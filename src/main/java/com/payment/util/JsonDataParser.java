@@ -1,115 +1,75 @@
 package com.payment.util;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.Map;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import com.payment.exception.classes.JsonDataParseException;
 
 
 /**
- * 
- * TODO: Create own custom JSON parser that parses directly into {@link ApiDataObject} rather than {@link JSONObject} using {@link JSONParser}.
- * 
- * Parses JSON data into a {@link ApiDataObject}
+ *
+ * Parses JSON data directly into a {@link ApiDataObject} in a single pass, using a
+ * {@link JsonDataReader}.
+ *
  * @author Oska Jory <oska@excede.com.au>
  *
  */
 public class JsonDataParser {
 
-	
+
 	/**
-	 * TODO: Add documentation
-	 * @param <T>
-	 * @param jsonString
-	 * @param mapClass
-	 * @return
-	 * @throws ParseException
-	 * @throws InstantiationException
-	 * @throws IllegalAccessException
-	 * @throws IllegalArgumentException
-	 * @throws InvocationTargetException
-	 * @throws NoSuchMethodException
-	 * @throws SecurityException
+	 * Parses a JSON object from a string.
+	 *
+	 * @param jsonString - The JSON text.
+	 * @return The parsed object, or null when the text is the JSON literal null.
+	 * @throws JsonDataParseException when the text is not a JSON object.
 	 */
-	
-	public static <T extends Map<String, Object>> T parse(String jsonString, Class<T> mapClass)
-			throws ParseException, InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-		JSONParser parser = new JSONParser();
-		JSONObject json = (JSONObject) parser.parse(jsonString);
-		T map = mapClass.getDeclaredConstructor().newInstance();
-		
-		for (Object key : json.keySet()) {
-			
-			if (json.get(key) instanceof JSONObject) {
-				map.put(key.toString(), createApiDataObject((JSONObject) json.get(key)));
-			} else {
-			
-				map.put(key.toString(), json.get(key));
-			}
-		}
-		
-		return map;
+	public static ApiDataObject parse(String jsonString) {
+		return parse(new StringReader(jsonString));
 	}
-	
-	
-	
-	
+
+
 	/**
-	 * TODO: Add documentation.
-	 * @param object
-	 * @return
+	 * Parses a JSON object from a UTF-8 encoded stream.
+	 *
+	 * @param stream - The stream holding the JSON text.
+	 * @return The parsed object, or null when the stream holds the JSON literal null.
+	 * @throws JsonDataParseException when the stream does not hold a JSON object.
 	 */
-	public static ApiDataObject createApiDataObject(JSONObject object) {
-		ApiDataObject new_object = new ApiDataObject();
-		
-		for (Object key : object.keySet()) {
-			
-			if (object.get(key) instanceof JSONObject) {
-				ApiDataObject sub_object = createApiDataObject((JSONObject) object.get(key));
-				new_object.put(key.toString(), sub_object);
-			} else {
-				new_object.put(key.toString(), object.get(key));
-			}
-		}
-		
-		return new_object;
-	}	
-	
-	
-	
+	public static ApiDataObject parse(InputStream stream) {
+		return parse(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+
 	/**
-	 * TODO: Add documentation.
-	 * @param jsonString
-	 * @return
+	 * Parses a JSON object from a reader.
+	 *
+	 * @param reader - The reader holding the JSON text.
+	 * @return The parsed object, or null when the reader holds the JSON literal null.
+	 * @throws JsonDataParseException when the reader does not hold a JSON object.
 	 */
-	public static ApiDataObject parse(String jsonString) {
+	public static ApiDataObject parse(Reader reader) {
 		try {
-			return parse(jsonString, ApiDataObject.class);
-		} catch (InstantiationException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (IllegalAccessException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (IllegalArgumentException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (InvocationTargetException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (NoSuchMethodException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (SecurityException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (ParseException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			return asObject(new JsonDataReader(reader).readValue());
+		} catch (IOException e) {
+			throw new JsonDataParseException("Failed to read JSON data.", e);
+		}
+	}
+
+
+	/**
+	 * @param value - A value read by a {@link JsonDataReader}.
+	 * @return The value as a data object, or null for the JSON literal null.
+	 * @throws JsonDataParseException when the value is not a JSON object.
+	 */
+	public static ApiDataObject asObject(Object value) {
+		if (value == null || value instanceof ApiDataObject) {
+			return (ApiDataObject) value;
 		}
-		
-		return null;
+		throw new JsonDataParseException("Expected a JSON object but got: " + value);
 	}
 }
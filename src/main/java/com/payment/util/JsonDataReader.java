@@ -0,0 +1,308 @@
+package com.payment.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.simple.JSONArray;
+
+import com.payment.exception.classes.JsonDataParseException;
+
+
+/**
+ *
+ * A streaming JSON tokenizer that reads values straight from a {@link Reader} into
+ * {@link ApiDataObject}s in a single pass.
+ *
+ * Objects become {@link ApiDataObject}, arrays {@link JSONArray}, integers {@link Long},
+ * decimals {@link Double}, booleans {@link Boolean} and null null, the same types
+ * json-simple produced before. Objects are backed by a {@link CompactDataMap}, so records
+ * with the same keys share them.
+ *
+ * The reader keeps its own buffer, so one instance must be used for the whole lifetime of
+ * the underlying stream when several values are read from it, e.g. pipelined responses.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public class JsonDataReader {
+
+
+	private static final int BUFFER_SIZE = 8192;
+
+
+	private final Reader in;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private final StringBuilder token = new StringBuilder();
+	private int position;
+	private int limit;
+
+
+	public JsonDataReader(Reader in) {
+		this.in = in;
+	}
+
+
+	/**
+	 * Reads the next JSON value followed by the end of its line, i.e. one line of the Swell
+	 * protocol.
+	 *
+	 * @return The value of the line.
+	 * @throws EOFException when the stream ended before a value was read.
+	 * @throws JsonDataParseException when the line is not valid JSON.
+	 */
+	public Object readLineValue() throws IOException {
+		Object value = readValue();
+		int next;
+		while ((next = peek()) != -1) {
+			position++;
+			if (next == '\n') {
+				break;
+			}
+			if (!isWhitespace(next)) {
+				throw error("Unexpected character after value: " + (char) next);
+			}
+		}
+		return value;
+	}
+
+
+	/**
+	 * @return The next JSON value in the stream.
+	 */
+	public Object readValue() throws IOException {
+		int next = skipWhitespace();
+		switch (next) {
+			case -1:
+				throw new EOFException("Stream ended before a JSON value was read.");
+			case '{':
+				position++;
+				return readObject();
+			case '[':
+				position++;
+				return readArray();
+			case '"':
+				position++;
+				return readString();
+			case 't':
+				expectLiteral("true");
+				return Boolean.TRUE;
+			case 'f':
+				expectLiteral("false");
+				return Boolean.FALSE;
+			case 'n':
+				expectLiteral("null");
+				return null;
+			default:
+				if (next == '-' || (next >= '0' && next <= '9')) {
+					return readNumber();
+				}
+				throw error("Unexpected character: " + (char) next);
+		}
+	}
+
+
+	/**
+	 * @return Whether characters are waiting to be read without blocking.
+	 */
+	public boolean ready() throws IOException {
+		return position < limit || in.ready();
+	}
+
+
+	private ApiDataObject readObject() throws IOException {
+		ApiDataObject object = ApiDataObject.compact();
+		if (skipWhitespace() == '}') {
+			position++;
+			return object;
+		}
+		while (true) {
+			if (skipWhitespace() != '"') {
+				throw error("Expected an object key.");
+			}
+			position++;
+			String key = readString();
+			if (skipWhitespace() != ':') {
+				throw error("Expected ':' after object key.");
+			}
+			position++;
+			object.put(key, readValue());
+			int next = skipWhitespace();
+			position++;
+			if (next == '}') {
+				return object;
+			}
+			if (next != ',') {
+				throw error("Expected ',' or '}' in object.");
+			}
+		}
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private JSONArray readArray() throws IOException {
+		JSONArray array = new JSONArray();
+		if (skipWhitespace() == ']') {
+			position++;
+			return array;
+		}
+		while (true) {
+			array.add(readValue());
+			int next = skipWhitespace();
+			position++;
+			if (next == ']') {
+				return array;
+			}
+			if (next != ',') {
+				throw error("Expected ',' or ']' in array.");
+			}
+		}
+	}
+
+
+	private String readString() throws IOException {
+		token.setLength(0);
+		while (true) {
+			if (position == limit && !fill()) {
+				throw error("Unterminated string.");
+			}
+			// Copy runs of plain characters in bulk.
+			int start = position;
+			while (position < limit && buffer[position] != '"' && buffer[position] != '\\') {
+				position++;
+			}
+			token.append(buffer, start, position - start);
+			if (position == limit) {
+				continue;
+			}
+			char c = buffer[position++];
+			if (c == '"') {
+				return token.toString();
+			}
+			token.append(readEscape());
+		}
+	}
+
+
+	private char readEscape() throws IOException {
+		int c = read();
+		switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				return (char) c;
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0) {
+						throw error("Invalid unicode escape.");
+					}
+					code = (code << 4) | digit;
+				}
+				return (char) code;
+			default:
+				throw error("Invalid escape character.");
+		}
+	}
+
+
+	private Object readNumber() throws IOException {
+		token.setLength(0);
+		boolean decimal = false;
+		int next;
+		while ((next = peek()) != -1 && isNumberPart(next)) {
+			if (next == '.' || next == 'e' || next == 'E') {
+				decimal = true;
+			}
+			token.append((char) next);
+			position++;
+		}
+		String number = token.toString();
+		try {
+			if (!decimal) {
+				try {
+					return Long.valueOf(number);
+				} catch (NumberFormatException e) {
+					// Too large for a long, fall back to a double like a decimal number.
+				}
+			}
+			return Double.valueOf(number);
+		} catch (NumberFormatException e) {
+			throw error("Invalid number: " + number);
+		}
+	}
+
+
+	private void expectLiteral(String literal) throws IOException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (read() != literal.charAt(i)) {
+				throw error("Invalid literal, expected " + literal);
+			}
+		}
+	}
+
+
+	private int skipWhitespace() throws IOException {
+		int next;
+		while ((next = peek()) != -1 && isWhitespace(next)) {
+			position++;
+		}
+		return next;
+	}
+
+
+	private int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+
+	private int read() throws IOException {
+		int next = peek();
+		if (next == -1) {
+			throw error("Unexpected end of stream.");
+		}
+		position++;
+		return next;
+	}
+
+
+	private boolean fill() throws IOException {
+		int read = in.read(buffer, 0, buffer.length);
+		if (read <= 0) {
+			position = 0;
+			limit = 0;
+			return false;
+		}
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+	}
+
+
+	private static boolean isNumberPart(int c) {
+		return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+	}
+
+
+	private static JsonDataParseException error(String message) {
+		return new JsonDataParseException("Invalid JSON: " + message);
+	}
+}
@@ -0,0 +1,165 @@
+package com.payment.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+
+/**
+ *
+ * Serialises {@link ApiDataObject}s and the values they hold into JSON, writing straight
+ * to any {@link Appendable} (a socket {@link java.io.Writer}, a {@link StringBuilder}...)
+ * in a single pass.
+ *
+ * Maps and {@link ApiDataObject}s become objects, collections and arrays become arrays,
+ * numbers and booleans are written as is and anything else is written as an escaped string.
+ *
+ * @author Oska Jory <oska@excede.com.au>
+ */
+public class JsonDataWriter {
+
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+
+	/**
+	 * @param value - The value to serialise.
+	 * @return The value as a JSON string.
+	 */
+	public static String toJson(Object value) {
+		StringBuilder builder = new StringBuilder();
+		try {
+			write(value, builder);
+		} catch (IOException e) {
+			// A StringBuilder never throws.
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
+
+
+	/**
+	 * Writes a value as JSON.
+	 *
+	 * @param value - The value to serialise.
+	 * @param out - Where the JSON is written to.
+	 */
+	public static void write(Object value, Appendable out) throws IOException {
+		if (value == null) {
+			out.append("null");
+		} else if (value instanceof String) {
+			writeString((String) value, out);
+		} else if (value instanceof Boolean) {
+			out.append(value.toString());
+		} else if (value instanceof Number) {
+			writeNumber((Number) value, out);
+		} else if (value instanceof Map) {
+			out.append('{');
+			writeMembers((Map<?, ?>) value, out);
+			out.append('}');
+		} else if (value instanceof Collection) {
+			writeArray((Collection<?>) value, out);
+		} else if (value instanceof Object[]) {
+			writeArray(Arrays.asList((Object[]) value), out);
+		} else {
+			writeString(value.toString(), out);
+		}
+	}
+
+
+	/**
+	 * Writes the entries of a map as comma separated JSON members, without the surrounding
+	 * braces, so callers can add members of their own.
+	 *
+	 * @param map - The entries to write.
+	 * @param out - Where the JSON is written to.
+	 * @return Whether any member was written.
+	 */
+	public static boolean writeMembers(Map<?, ?> map, Appendable out) throws IOException {
+		boolean first = true;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (!first) {
+				out.append(',');
+			}
+			writeString(String.valueOf(entry.getKey()), out);
+			out.append(':');
+			write(entry.getValue(), out);
+			first = false;
+		}
+		return !first;
+	}
+
+
+	/**
+	 * Writes a string as a quoted, escaped JSON string.
+	 *
+	 * @param value - The string to write.
+	 * @param out - Where the JSON is written to.
+	 */
+	public static void writeString(String value, Appendable out) throws IOException {
+		out.append('"');
+		int start = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\') {
+				continue;
+			}
+			out.append(value, start, i);
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				case '\b':
+					out.append("\\b");
+					break;
+				case '\f':
+					out.append("\\f");
+					break;
+				default:
+					out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+			}
+			start = i + 1;
+		}
+		out.append(value, start, value.length());
+		out.append('"');
+	}
+
+
+	private static void writeArray(Collection<?> values, Appendable out) throws IOException {
+		out.append('[');
+		boolean first = true;
+		for (Object value : values) {
+			if (!first) {
+				out.append(',');
+			}
+			write(value, out);
+			first = false;
+		}
+		out.append(']');
+	}
+
+
+	private static void writeNumber(Number value, Appendable out) throws IOException {
+		if ((value instanceof Double && !Double.isFinite(value.doubleValue()))
+				|| (value instanceof Float && !Float.isFinite(value.floatValue()))) {
+			// JSON has no NaN or Infinity.
+			out.append("null");
+		} else {
+			out.append(value.toString());
+		}
+	}
+}
@@ -12,6 +12,15 @@ public enum RequestType {
 	POST,
 	GET,
 	PUT,
-	DELETE
+	DELETE;
+	
+	
+	/**
+	 * @return Whether making the request twice has the same effect as making it once, so it
+	 * can safely be retried.
+	 */
+	public boolean isIdempotent() {
+		return this != POST;
+	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class SwellCircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        SwellCircuitBreaker breaker = breaker(60000);
+        breaker.onFailure(breaker.acquire());
+        breaker.onSuccess(breaker.acquire());
+        breaker.onFailure(breaker.acquire());
+        breaker.onFailure(breaker.acquire());
+        Assertions.assertEquals(SwellCircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertThrows(SwellUnavailableException.class, breaker::acquire);
+    }
+
+    @Test
+    void letsOneProbeThroughOnceOpenTimeHasPassed() {
+        SwellCircuitBreaker breaker = opened();
+
+        SwellCircuitBreaker.Ticket probe = breaker.acquire();
+        Assertions.assertEquals(SwellCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assertions.assertThrows(SwellUnavailableException.class, breaker::acquire);
+
+        breaker.onSuccess(probe);
+        Assertions.assertEquals(SwellCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.acquire();
+    }
+
+    @Test
+    void failedProbeOpensAgain() {
+        SwellCircuitBreaker breaker = opened();
+
+        breaker.onFailure(breaker.acquire());
+        Assertions.assertEquals(SwellCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void onlyTheProbeEndsTheHalfOpenState() {
+        SwellCircuitBreaker breaker = breaker(0);
+        // Let through before the breaker opened, ending while the probe is in flight.
+        SwellCircuitBreaker.Ticket stale = breaker.acquire();
+        breaker.onFailure(breaker.acquire());
+        breaker.onFailure(breaker.acquire());
+
+        breaker.acquire();
+        breaker.release(stale);
+        Assertions.assertThrows(SwellUnavailableException.class, breaker::acquire);
+        breaker.onSuccess(stale);
+        Assertions.assertEquals(SwellCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(stale);
+        Assertions.assertEquals(SwellCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void releasedProbeLetsAnotherThrough() {
+        SwellCircuitBreaker breaker = opened();
+
+        breaker.release(breaker.acquire());
+        breaker.acquire();
+        Assertions.assertEquals(SwellCircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private static SwellCircuitBreaker opened() {
+        SwellCircuitBreaker breaker = breaker(0);
+        breaker.onFailure(breaker.acquire());
+        breaker.onFailure(breaker.acquire());
+        return breaker;
+    }
+
+    private static SwellCircuitBreaker breaker(long openMs) {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getBreakerFailureThreshold()).thenReturn(2);
+        Mockito.when(config.getBreakerOpenMs()).thenReturn(openMs);
+        return new SwellCircuitBreaker(config);
+    }
+}
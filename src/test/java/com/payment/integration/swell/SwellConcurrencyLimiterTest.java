@@ -0,0 +1,104 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SwellConcurrencyLimiterTest {
+
+    @Test
+    void waitsForASlotThenTimesOut() {
+        SwellConcurrencyLimiter limiter = limiter(2);
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        Assertions.assertThrows(SwellUnavailableException.class, () -> limiter.acquire(SwellPriority.INTERACTIVE));
+        Assertions.assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void growsWhileLatencyIsFlat() throws InterruptedException {
+        SwellConcurrencyLimiter limiter = limiter(4);
+        for (int round = 0; round < 20; round++) {
+            List<SwellConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.acquire(SwellPriority.INTERACTIVE));
+            }
+            Thread.sleep(1);
+            permits.forEach(SwellConcurrencyLimiter.Permit::success);
+        }
+        Assertions.assertTrue(limiter.getLimit() > 4);
+    }
+
+    @Test
+    void shrinksWhenRequestsAreDropped() {
+        SwellConcurrencyLimiter limiter = limiter(8);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(SwellPriority.INTERACTIVE).dropped();
+        }
+        Assertions.assertTrue(limiter.getLimit() < 8);
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void endsAPermitOnce() {
+        SwellConcurrencyLimiter limiter = limiter(8);
+        SwellConcurrencyLimiter.Permit permit = limiter.acquire(SwellPriority.INTERACTIVE);
+        permit.success();
+        permit.release();
+        permit.dropped();
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void bulkLeavesTheReserveToInteractiveRequests() {
+        SwellConcurrencyLimiter limiter = limiter(4);
+        limiter.acquire(SwellPriority.BULK);
+        limiter.acquire(SwellPriority.BULK);
+        Assertions.assertThrows(SwellUnavailableException.class, () -> limiter.acquire(SwellPriority.BULK));
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        Assertions.assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    void bulkWaitsBehindInteractiveRequests() throws InterruptedException {
+        SwellConcurrencyLimiter limiter = limiter(3, 5000);
+        SwellConcurrencyLimiter.Permit first = limiter.acquire(SwellPriority.INTERACTIVE);
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        limiter.acquire(SwellPriority.INTERACTIVE);
+        Thread waiting = new Thread(() -> limiter.acquire(SwellPriority.INTERACTIVE));
+        waiting.start();
+        while (limiter.stats().get("interactiveWaiting").equals(0)) {
+            Thread.sleep(1);
+        }
+        // The slot freed up goes to the waiting interactive request.
+        first.release();
+        Assertions.assertThrows(SwellUnavailableException.class, () -> limiter.acquire(SwellPriority.BULK));
+        waiting.join();
+        Assertions.assertEquals(3, limiter.getInFlight());
+    }
+
+    private static SwellConcurrencyLimiter limiter(int initialLimit) {
+        return limiter(initialLimit, 10);
+    }
+
+    private static SwellConcurrencyLimiter limiter(int initialLimit, long acquireTimeoutMs) {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getConcurrencyInitialLimit()).thenReturn(initialLimit);
+        Mockito.when(config.getConcurrencyMinLimit()).thenReturn(1);
+        Mockito.when(config.getConcurrencyMaxLimit()).thenReturn(32);
+        // Sleeping makes the round trips noisy, keep them within tolerance.
+        Mockito.when(config.getConcurrencyRttTolerance()).thenReturn(1000.0);
+        Mockito.when(config.getConcurrencyBackoffRatio()).thenReturn(0.9);
+        Mockito.when(config.getConcurrencyAcquireTimeoutMs()).thenReturn(acquireTimeoutMs);
+        Mockito.when(config.getPriorityInteractiveReserve()).thenReturn(2);
+        Mockito.when(config.getPriorityBulkTimeoutMs()).thenReturn(10L);
+        return new SwellConcurrencyLimiter(config);
+    }
+}
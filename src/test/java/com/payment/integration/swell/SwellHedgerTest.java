@@ -0,0 +1,102 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SwellHedgerTest {
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void doesNotHedgeWhenDisabled() {
+        SwellHedger hedger = hedger(false, 100);
+        ApiDataObject response = new ApiDataObject();
+        Assertions.assertSame(response, hedger.execute(leg -> {
+            Assertions.assertNull(leg);
+            return response;
+        }));
+    }
+
+    @Test
+    void doesNotHedgeUntilLatenciesAreKnown() {
+        SwellHedger hedger = hedger(true, 100);
+        AtomicInteger calls = new AtomicInteger();
+        hedger.execute(leg -> {
+            calls.incrementAndGet();
+            Assertions.assertNull(leg);
+            return new ApiDataObject();
+        });
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void slowRequestIsHedgedAndTheFirstAnswerWins() {
+        SwellHedger hedger = warmedUp(hedger(true, 100));
+        ApiDataObject hedged = new ApiDataObject().put("leg", "hedge");
+        AtomicInteger calls = new AtomicInteger();
+
+        ApiDataObject response = hedger.execute(leg -> {
+            if (calls.incrementAndGet() == 2) {
+                return hedged;
+            }
+            // The first request hangs until the hedge cancels it.
+            while (!leg.isCancelled()) {
+                sleep(1);
+            }
+            throw new CancellationException();
+        });
+
+        Assertions.assertSame(hedged, response);
+        Assertions.assertEquals(1L, hedger.stats().get("hedges"));
+        Assertions.assertEquals(1L, hedger.stats().get("hedgeWins"));
+    }
+
+    @Test
+    void hedgesAreCappedByTheBudget() {
+        SwellHedger hedger = warmedUp(hedger(true, 0));
+        AtomicInteger calls = new AtomicInteger();
+
+        ApiDataObject response = hedger.execute(leg -> {
+            calls.incrementAndGet();
+            sleep(50);
+            return new ApiDataObject().put("leg", "primary");
+        });
+
+        Assertions.assertEquals("primary", response.get("leg"));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(0L, hedger.stats().get("hedges"));
+    }
+
+    private static SwellHedger warmedUp(SwellHedger hedger) {
+        for (int i = 0; i < SwellHedger.MIN_SAMPLES; i++) {
+            hedger.record(MILLISECOND);
+        }
+        return hedger;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SwellHedger hedger(boolean enabled, double budgetPercent) {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.isHedgeEnabled()).thenReturn(enabled);
+        Mockito.when(config.getHedgePercentile()).thenReturn(95.0);
+        Mockito.when(config.getHedgeMinDelayMs()).thenReturn(1L);
+        Mockito.when(config.getHedgeSamples()).thenReturn(100);
+        Mockito.when(config.getHedgeBudgetPercent()).thenReturn(budgetPercent);
+        Mockito.when(config.getExecutorThreads()).thenReturn(2);
+        Mockito.when(config.getExecutorQueueCapacity()).thenReturn(10);
+        return new SwellHedger(config, new SwellExecutor(config));
+    }
+}
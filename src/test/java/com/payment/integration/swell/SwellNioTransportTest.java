@@ -0,0 +1,189 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs the transport against a TLS echo server on the loopback interface, trusting the
+ * self-signed certificate of swell-loopback.p12.
+ */
+class SwellNioTransportTest {
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    private SSLServerSocket server;
+    private SwellNioTransport transport;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (transport != null) {
+            transport.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void answersPipelinedRequestsInOrder() throws Exception {
+        start((connection, socket) -> echo(socket));
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            responses.add(transport.send("[\"get\", \"/accounts/" + i + "\", {}]"));
+        }
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals("[\"get\", \"/accounts/" + i + "\", {}]", responses.get(i).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void handlesFramesLargerThanATlsRecord() throws Exception {
+        start((connection, socket) -> echo(socket));
+        StringBuilder frame = new StringBuilder("[\"post\", \"/accounts\", {\"notes\": \"");
+        while (frame.length() < 100_000) {
+            frame.append("0123456789");
+        }
+        frame.append("\"}]");
+        Assertions.assertEquals(frame.toString(), transport.send(frame.toString()).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failsRequestsInFlightThenReconnects() throws Exception {
+        start((connection, socket) -> {
+            if (connection == 1) {
+                // Reads the request, then drops the connection without answering.
+                readLine(socket);
+                close(socket);
+            } else {
+                echo(socket);
+            }
+        });
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> transport.send("[\"get\", \"/accounts\", {}]").get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof SwellUnavailableException);
+
+        Assertions.assertEquals("[\"get\", \"/orders\", {}]", transport.send("[\"get\", \"/orders\", {}]").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timeoutFailsTheRequestsBehindItThenReconnects() throws Exception {
+        start((connection, socket) -> {
+            if (connection == 1) {
+                // Reads the requests, then never answers.
+                readLine(socket);
+            } else {
+                echo(socket);
+            }
+        });
+        CompletableFuture<String> timedOut = transport.send("[\"get\", \"/accounts\", {}]", 200);
+        CompletableFuture<String> behind = transport.send("[\"get\", \"/orders\", {}]", 10000);
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class, () -> timedOut.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof TimeoutException);
+        error = Assertions.assertThrows(ExecutionException.class, () -> behind.get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof SwellUnavailableException);
+
+        Assertions.assertEquals("[\"get\", \"/products\", {}]", transport.send("[\"get\", \"/products\", {}]", 10000).get(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Starts the server and a transport with a single connection to it.
+     *
+     * @param handler - Serves each accepted connection, given its number counting from 1.
+     */
+    private void start(BiConsumer<Integer, Socket> handler) throws Exception {
+        SSLContext sslContext = sslContext();
+        server = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            AtomicInteger connections = new AtomicInteger();
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    int connection = connections.incrementAndGet();
+                    Thread worker = new Thread(() -> handler.accept(connection, socket));
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getHost()).thenReturn("localhost");
+        Mockito.when(config.getPort()).thenReturn(server.getLocalPort());
+        Mockito.when(config.getNioSelectorThreads()).thenReturn(1);
+        Mockito.when(config.getNioConnections()).thenReturn(1);
+        transport = new SwellNioTransport(config, sslContext);
+    }
+
+    private static SSLContext sslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = SwellNioTransportTest.class.getResourceAsStream("/swell-loopback.p12")) {
+            keyStore.load(in, PASSWORD);
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return sslContext;
+    }
+
+    private static void echo(Socket socket) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(line);
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // The transport closed the connection.
+        }
+    }
+
+    private static void readLine(Socket socket) {
+        try {
+            new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+        } catch (IOException ignored) {
+            // Closed below either way.
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already closed.
+        }
+    }
+}
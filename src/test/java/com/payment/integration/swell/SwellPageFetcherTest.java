@@ -0,0 +1,113 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import org.json.simple.JSONArray;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class SwellPageFetcherTest {
+    private final SwellConnection connection = Mockito.mock(SwellConnection.class);
+    private final SwellPageFetcher fetcher = new SwellPageFetcher(config(), connection);
+
+    @AfterEach
+    void shutdown() {
+        fetcher.shutdown();
+    }
+
+    @Test
+    void assemblesEveryPageInOrder() throws Exception {
+        Mockito.when(connection.get("/orders?limit=1", SwellPriority.BULK)).thenReturn(countResponse(95));
+        Mockito.when(connection.pipeline(Mockito.anyList(), Mockito.eq(SwellPriority.BULK))).thenAnswer(invocation -> pages(invocation.getArgument(0), 95));
+
+        List<ApiDataObject> orders = fetcher.fetchAll("/orders", 2);
+
+        Assertions.assertEquals(95, orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Assertions.assertEquals((long) i, orders.get(i).get("index"));
+        }
+    }
+
+    @Test
+    void retriesAFailedBatch() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Mockito.when(connection.get("/orders?limit=1", SwellPriority.BULK)).thenReturn(countResponse(3));
+        Mockito.when(connection.pipeline(Mockito.anyList(), Mockito.eq(SwellPriority.BULK))).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("Issues while connecting to swell");
+            }
+            return pages(invocation.getArgument(0), 3);
+        });
+
+        Assertions.assertEquals(3, fetcher.fetchAll("/orders", 25).size());
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void failsInsteadOfReturningPartialResults() {
+        Mockito.when(connection.get("/orders?limit=1", SwellPriority.BULK)).thenReturn(countResponse(100));
+        Mockito.when(connection.pipeline(Mockito.anyList(), Mockito.eq(SwellPriority.BULK))).thenThrow(new IllegalStateException("Issues while connecting to swell"));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> fetcher.fetchAll("/orders", 25));
+    }
+
+    @Test
+    void streamsPagesLazilyWithinThePrefetchWindow() {
+        AtomicInteger fetchedPages = new AtomicInteger();
+        Mockito.when(connection.get("/orders?limit=1", SwellPriority.BULK)).thenReturn(countResponse(100));
+        Mockito.when(connection.pipeline(Mockito.anyList(), Mockito.eq(SwellPriority.BULK))).thenAnswer(invocation -> {
+            fetchedPages.incrementAndGet();
+            return pages(invocation.getArgument(0), 100);
+        });
+
+        try (Stream<ApiDataObject> orders = fetcher.stream("/orders", 10)) {
+            List<ApiDataObject> firstOrders = orders.limit(5).collect(Collectors.toList());
+            Assertions.assertEquals(4L, firstOrders.get(4).get("index"));
+        }
+        // The first page and at most two pages ahead of it.
+        Assertions.assertTrue(fetchedPages.get() <= 3);
+        try (Stream<ApiDataObject> orders = fetcher.stream("/orders", 10)) {
+            Assertions.assertEquals(100, orders.count());
+        }
+    }
+
+    private static SwellConfig config() {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getPageParallelism()).thenReturn(2);
+        Mockito.when(config.getPageRetries()).thenReturn(1);
+        Mockito.when(config.getPagePrefetch()).thenReturn(2);
+        Mockito.when(config.getPageTimeoutMs()).thenReturn(5000L);
+        Mockito.when(config.getRetryBaseBackoffMs()).thenReturn(1L);
+        Mockito.when(config.getRetryMaxBackoffMs()).thenReturn(5L);
+        return config;
+    }
+
+    private static ApiDataObject countResponse(long count) {
+        return new ApiDataObject().put("$data", new ApiDataObject().put("count", count));
+    }
+
+    // Answers each call of a pipeline with its page, records numbered across pages.
+    @SuppressWarnings("unchecked")
+    private static List<ApiDataObject> pages(List<SwellCall> calls, long count) {
+        List<ApiDataObject> responses = new ArrayList<>();
+        for (SwellCall call : calls) {
+            String query = call.getPath().substring(call.getPath().indexOf('?') + 1);
+            int limit = Integer.parseInt(query.replaceAll(".*limit=(\\d+).*", "$1"));
+            int page = Integer.parseInt(query.replaceAll(".*page=(\\d+).*", "$1"));
+            JSONArray results = new JSONArray();
+            for (long index = (long) (page - 1) * limit; index < Math.min((long) page * limit, count); index++) {
+                results.add(new ApiDataObject().put("index", index));
+            }
+            responses.add(new ApiDataObject().put("$data", new ApiDataObject().put("results", results)));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,60 @@
+package com.payment.integration.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.SwellUnavailableException;
+import com.payment.util.RequestType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.TimeUnit;
+
+class SwellRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void burstIsFreeThenCallersQueueForRefills() {
+        SwellRateLimiter.TokenBucket bucket = new SwellRateLimiter.TokenBucket(10, 2);
+        long now = System.nanoTime();
+        Assertions.assertEquals(0, bucket.reserve(1, now, SECOND));
+        Assertions.assertEquals(0, bucket.reserve(1, now, SECOND));
+        // Each caller waits for the token after the one reserved before it.
+        Assertions.assertEquals(SECOND / 10, bucket.reserve(1, now, SECOND), 1000);
+        Assertions.assertEquals(2 * SECOND / 10, bucket.reserve(1, now, SECOND), 1000);
+    }
+
+    @Test
+    void refillsUpToTheBurst() {
+        SwellRateLimiter.TokenBucket bucket = new SwellRateLimiter.TokenBucket(10, 2);
+        long now = System.nanoTime();
+        bucket.reserve(2, now, SECOND);
+        long later = now + 10 * SECOND;
+        Assertions.assertEquals(0, bucket.reserve(2, later, SECOND));
+        Assertions.assertTrue(bucket.reserve(1, later, SECOND) > 0);
+    }
+
+    @Test
+    void rejectsCallersThatWouldWaitPastTheTimeout() {
+        SwellRateLimiter.TokenBucket bucket = new SwellRateLimiter.TokenBucket(1, 1);
+        long now = System.nanoTime();
+        bucket.reserve(1, now, SECOND);
+        Assertions.assertEquals(-1, bucket.reserve(5, now, SECOND));
+        // Nothing was taken by the rejected caller.
+        Assertions.assertEquals(SECOND, bucket.reserve(1, now, SECOND), 1000);
+    }
+
+    @Test
+    void readsAndWritesAreLimitedApart() {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getRateLimitReadsPerSecond()).thenReturn(1.0);
+        Mockito.when(config.getRateLimitReadsBurst()).thenReturn(1);
+        Mockito.when(config.getRateLimitWritesPerSecond()).thenReturn(1.0);
+        Mockito.when(config.getRateLimitWritesBurst()).thenReturn(1);
+        Mockito.when(config.getRateLimitQueueTimeoutMs()).thenReturn(0L);
+        SwellRateLimiter limiter = new SwellRateLimiter(config);
+
+        limiter.acquire(RequestType.GET, 1, SwellPriority.INTERACTIVE);
+        limiter.acquire(RequestType.PUT, 1, SwellPriority.INTERACTIVE);
+        Assertions.assertThrows(SwellUnavailableException.class, () -> limiter.acquire(RequestType.GET, 1, SwellPriority.INTERACTIVE));
+    }
+}
@@ -0,0 +1,73 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SwellRequestCoalescerTest {
+    private final SwellRequestCoalescer coalescer = new SwellRequestCoalescer();
+
+    @Test
+    void concurrentIdenticalRequestsShareOneCall() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ApiDataObject>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> coalescer.execute("/accounts/a", () -> {
+                upstreamCalls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return new ApiDataObject().put("$data", new ApiDataObject().put("id", "a"));
+            })));
+            started.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 3; i++) {
+                responses.add(executor.submit(() -> coalescer.execute("/accounts/a", () -> {
+                    upstreamCalls.incrementAndGet();
+                    return new ApiDataObject();
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ApiDataObject> response : responses) {
+                Assertions.assertEquals("a", response.get(5, TimeUnit.SECONDS).getDataObject("$data").get("id"));
+            }
+            Assertions.assertEquals(1, upstreamCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequentialRequestsAreNotShared() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        coalescer.execute("/accounts/a", () -> new ApiDataObject().put("call", upstreamCalls.incrementAndGet()));
+        ApiDataObject second = coalescer.execute("/accounts/a", () -> new ApiDataObject().put("call", upstreamCalls.incrementAndGet()));
+        Assertions.assertEquals(2, second.get("call"));
+    }
+
+    @Test
+    void failurePropagatesToCaller() {
+        Assertions.assertThrows(IllegalStateException.class, () -> coalescer.execute("/accounts/a", () -> {
+            throw new IllegalStateException("Issues while connecting to swell");
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
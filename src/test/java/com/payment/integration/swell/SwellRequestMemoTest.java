@@ -0,0 +1,53 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class SwellRequestMemoTest {
+    private final SwellRequestMemo memo = new SwellRequestMemo();
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void remembersResponsesForTheRestOfTheRequest() {
+        startRequest();
+        memo.put("/accounts/a@excede.com.au", account("0400000000"));
+
+        ApiDataObject memoized = memo.get("/accounts/a@excede.com.au");
+        memoized.getDataObject("$data").put("phone", "changed");
+        Assertions.assertEquals("0400000000", memo.get("/accounts/a@excede.com.au").getDataObject("$data").get("phone"));
+
+        memo.clear();
+        Assertions.assertNull(memo.get("/accounts/a@excede.com.au"));
+    }
+
+    @Test
+    void forgetsEverythingWithTheRequest() {
+        startRequest();
+        memo.put("/accounts/a@excede.com.au", account("0400000000"));
+        startRequest();
+        Assertions.assertNull(memo.get("/accounts/a@excede.com.au"));
+    }
+
+    @Test
+    void remembersNothingOutsideARequest() {
+        memo.put("/accounts/a@excede.com.au", account("0400000000"));
+        Assertions.assertNull(memo.get("/accounts/a@excede.com.au"));
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static ApiDataObject account(String phone) {
+        return new ApiDataObject().put("$data", new ApiDataObject().put("phone", phone));
+    }
+}
@@ -0,0 +1,68 @@
+package com.payment.integration.swell;
+
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class SwellResponseCacheTest {
+    private final String accountPath = "/accounts/example@gmail.com";
+    private final SwellResponseCache cache = new SwellResponseCache(2, Map.of("/accounts/", 60_000L, "/products", 0L));
+
+    @Test
+    void returnsCopyOfCachedResponse() {
+        cache.put(accountPath, getAccountResponse(), cache.generation(accountPath));
+        ApiDataObject cached = cache.get(accountPath);
+        cached.getDataObject("$data").put("phone", "changed");
+        Assertions.assertEquals("+37494710051", cache.get(accountPath).getDataObject("$data").get("phone"));
+    }
+
+    @Test
+    void skipsPathsWithoutTtl() {
+        Assertions.assertFalse(cache.isCacheable("/products"));
+        Assertions.assertFalse(cache.isCacheable("/accounts?limit=1"));
+        cache.put("/products", getAccountResponse(), cache.generation("/products"));
+        Assertions.assertNull(cache.get("/products"));
+    }
+
+    @Test
+    void skipsResponsesWithoutData() {
+        cache.put(accountPath, new ApiDataObject(), cache.generation(accountPath));
+        Assertions.assertNull(cache.get(accountPath));
+    }
+
+    @Test
+    void writeInvalidatesWholeCollection() {
+        cache.put(accountPath, getAccountResponse(), cache.generation(accountPath));
+        cache.invalidate("/accounts/123/addresses");
+        Assertions.assertNull(cache.get(accountPath));
+    }
+
+    @Test
+    void staleGenerationIsNotCached() {
+        long generation = cache.generation(accountPath);
+        cache.invalidate(accountPath);
+        cache.put(accountPath, getAccountResponse(), generation);
+        Assertions.assertNull(cache.get(accountPath));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        cache.put("/accounts/1", getAccountResponse(), cache.generation("/accounts/1"));
+        cache.put("/accounts/2", getAccountResponse(), cache.generation("/accounts/2"));
+        cache.get("/accounts/1");
+        cache.put("/accounts/3", getAccountResponse(), cache.generation("/accounts/3"));
+        Assertions.assertNotNull(cache.get("/accounts/1"));
+        Assertions.assertNull(cache.get("/accounts/2"));
+        Assertions.assertNotNull(cache.get("/accounts/3"));
+    }
+
+    private static ApiDataObject getAccountResponse() {
+        ApiDataObject account = new ApiDataObject();
+        ApiDataObject accountDetails = new ApiDataObject();
+        accountDetails.put("phone", "+37494710051");
+        account.put("$data", accountDetails);
+        return account;
+    }
+}
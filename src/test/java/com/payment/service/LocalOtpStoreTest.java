@@ -0,0 +1,52 @@
+package com.payment.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LocalOtpStoreTest {
+    private final String receiver = "example@gmail.com";
+
+    @Test
+    void codeIsUsedOnce() {
+        LocalOtpStore store = new LocalOtpStore(6, 60000, 5, 100);
+        String code = store.issue(receiver);
+        Assertions.assertEquals(6, code.length());
+        Assertions.assertTrue(store.verify("Example@gmail.com ", code));
+        Assertions.assertFalse(store.verify(receiver, code));
+    }
+
+    @Test
+    void newCodeReplacesPrevious() {
+        LocalOtpStore store = new LocalOtpStore(6, 60000, 5, 100);
+        String first = store.issue(receiver);
+        String second = store.issue(receiver);
+        if (!first.equals(second)) {
+            Assertions.assertFalse(store.verify(receiver, first));
+        }
+        Assertions.assertTrue(store.verify(receiver, second));
+    }
+
+    @Test
+    void codeIsDiscardedAfterMaxAttempts() {
+        LocalOtpStore store = new LocalOtpStore(6, 60000, 2, 100);
+        String code = store.issue(receiver);
+        String wrong = code.equals("000000") ? "111111" : "000000";
+        Assertions.assertFalse(store.verify(receiver, wrong));
+        Assertions.assertFalse(store.verify(receiver, wrong));
+        Assertions.assertFalse(store.verify(receiver, code));
+    }
+
+    @Test
+    void expiredCodeFails() {
+        LocalOtpStore store = new LocalOtpStore(6, 0, 5, 100);
+        String code = store.issue(receiver);
+        Assertions.assertFalse(store.verify(receiver, code));
+    }
+
+    @Test
+    void rejectsWhenFull() {
+        LocalOtpStore store = new LocalOtpStore(6, 60000, 5, 1);
+        store.issue(receiver);
+        Assertions.assertThrows(IllegalStateException.class, () -> store.issue("other@gmail.com"));
+    }
+}
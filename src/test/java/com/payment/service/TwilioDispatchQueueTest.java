@@ -0,0 +1,96 @@
+package com.payment.service;
+
+import com.payment.configuration.TwilioConfig;
+import com.payment.dto.OperationStatus;
+import com.payment.exception.classes.ServiceOverloadedException;
+import com.twilio.exception.ApiConnectionException;
+import com.twilio.exception.ApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TwilioDispatchQueueTest {
+    private TwilioDispatchQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        TwilioConfig config = mock(TwilioConfig.class);
+        when(config.getDispatchWorkers()).thenReturn(1);
+        when(config.getDispatchQueueCapacity()).thenReturn(1);
+        when(config.getDispatchRetries()).thenReturn(2);
+        when(config.getDispatchBackoffMs()).thenReturn(1L);
+        when(config.getDispatchStatusTtlMs()).thenReturn(60000L);
+        queue = new TwilioDispatchQueue(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void retriesConnectionFailures() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        String id = queue.submit("a test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ApiConnectionException("connection reset");
+            }
+        });
+        Assertions.assertEquals(OperationStatus.SUCCESSFUL, awaitStatus(id));
+        Assertions.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryBadRequests() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        String id = queue.submit("a test", () -> {
+            attempts.incrementAndGet();
+            throw new ApiException("Invalid parameter", 60200, null, 400, null);
+        });
+        Assertions.assertEquals(OperationStatus.FAILED, awaitStatus(id));
+        Assertions.assertEquals("Invalid parameter", queue.status(id).getErrorMessage());
+        Assertions.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void rejectsWhenFull() {
+        Object release = new Object();
+        Runnable blocked = () -> {
+            synchronized (release) {
+                try {
+                    release.wait(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        queue.submit("a test", blocked);
+        queue.submit("a test", blocked);
+        Assertions.assertThrows(ServiceOverloadedException.class, () -> queue.submit("a test", blocked));
+        synchronized (release) {
+            release.notifyAll();
+        }
+    }
+
+    @Test
+    void unknownDispatch() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queue.status("unknown"));
+    }
+
+    private OperationStatus awaitStatus(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            OperationStatus status = queue.status(id).getOperationStatus();
+            if (status != OperationStatus.PENDING) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return OperationStatus.PENDING;
+    }
+}
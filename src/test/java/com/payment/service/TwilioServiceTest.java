@@ -14,6 +14,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -24,7 +26,9 @@ class TwilioServiceTest {
     @MockBean
     private SwellAccountService swellAccountService;
     @MockBean
-    private TwilioVerificationService twilioVerificationService;
+    private OtpProvider otpProvider;
+    @MockBean
+    private TwilioDispatchQueue twilioDispatchQueue;
     @Autowired
     private TwilioService twilioService;
     private final String email = "example@gmail.com";
@@ -38,7 +42,7 @@ class TwilioServiceTest {
         twilioRequest.setVerificationType(TwilioVerificationType.SMS);
         mockPhoneNumber();
         ServiceResponse serviceResponse = twilioService.sendVerification(twilioRequest);
-        verify(twilioVerificationService).sendVerificationSms(phone);
+        verify(otpProvider).sendVerificationSms(phone);
         Assertions.assertEquals(serviceResponse, response);
     }
 
@@ -50,10 +54,26 @@ class TwilioServiceTest {
         twilioRequest.setEmail(email);
         twilioRequest.setVerificationType(TwilioVerificationType.EMAIL);
         ServiceResponse serviceResponse = twilioService.sendVerification(twilioRequest);
-        verify(twilioVerificationService).sendVerificationEmail(email);
+        verify(otpProvider).sendVerificationEmail(email);
         Assertions.assertEquals(serviceResponse, response);
     }
 
+    @Test
+    void sendVerificationSmsAsync() {
+        TwilioRequest twilioRequest = new TwilioRequest();
+        twilioRequest.setEmail(email);
+        twilioRequest.setVerificationType(TwilioVerificationType.SMS);
+        mockPhoneNumber();
+        when(twilioDispatchQueue.submit(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return "dispatchId";
+        });
+        ServiceResponse serviceResponse = twilioService.sendVerificationAsync(twilioRequest);
+        verify(otpProvider).sendVerificationSms(phone);
+        Assertions.assertEquals(OperationStatus.PENDING, serviceResponse.getOperationStatus());
+        Assertions.assertEquals(Map.of("dispatchId", "dispatchId"), serviceResponse.getDetails());
+    }
+
     @Test
     void checkVerificationOtpWithSms() {
         String passwordToken = "passwordToken";
@@ -64,11 +84,11 @@ class TwilioServiceTest {
         twilioRequest.setVerificationType(TwilioVerificationType.SMS);
         mockPhoneNumber();
 
-        when(twilioVerificationService.checkOtp(twilioRequest.getOtpCode(), phone)).thenReturn(OperationStatus.APPROVED);
+        when(otpProvider.checkOtp(twilioRequest.getOtpCode(), phone)).thenReturn(OperationStatus.APPROVED);
         when(swellAccountService.generatePasswordToken(email)).thenReturn(generatePasswordResponse);
 
         ServiceResponse serviceResponse = twilioService.checkOtp(twilioRequest);
-        verify(twilioVerificationService).checkOtp(twilioRequest.getOtpCode(), phone);
+        verify(otpProvider).checkOtp(twilioRequest.getOtpCode(), phone);
         verify(swellAccountService).generatePasswordToken(email);
 
         Assertions.assertEquals(serviceResponse.getDetails(), generatePasswordResponse);
@@ -83,11 +103,11 @@ class TwilioServiceTest {
         twilioRequest.setOtpCode("145623");
         twilioRequest.setVerificationType(TwilioVerificationType.EMAIL);
 
-        when(twilioVerificationService.checkOtp(twilioRequest.getOtpCode(), email)).thenReturn(OperationStatus.APPROVED);
+        when(otpProvider.checkOtp(twilioRequest.getOtpCode(), email)).thenReturn(OperationStatus.APPROVED);
         when(swellAccountService.generatePasswordToken(email)).thenReturn(generatePasswordResponse);
 
         ServiceResponse serviceResponse = twilioService.checkOtp(twilioRequest);
-        verify(twilioVerificationService).checkOtp(twilioRequest.getOtpCode(), email);
+        verify(otpProvider).checkOtp(twilioRequest.getOtpCode(), email);
         verify(swellAccountService).generatePasswordToken(email);
         verify(swellAccountService, never()).getAccount(email);
 
@@ -0,0 +1,55 @@
+package com.payment.service.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.exception.classes.CustomerNotFoundException;
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class SwellCustomerServiceTest {
+    private final SwellConfig config = Mockito.mock(SwellConfig.class);
+    private final SwellAccountService accounts = Mockito.mock(SwellAccountService.class);
+    private final SwellOrderService orders = Mockito.mock(SwellOrderService.class);
+    private final SwellSubscriptionService subscriptions = Mockito.mock(SwellSubscriptionService.class);
+    private final SwellCustomerService customers = new SwellCustomerService(config, accounts, orders, subscriptions);
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(config.getCustomerTimeoutMs()).thenReturn(200L);
+        Mockito.when(config.getCustomerRecordLimit()).thenReturn(25);
+    }
+
+    @Test
+    void returnsPartialResultsWhenABranchTimesOut() {
+        List<ApiDataObject> accountOrders = Collections.singletonList(new ApiDataObject().put("id", "o1"));
+        Mockito.when(accounts.getAccountAsync("a")).thenReturn(CompletableFuture.completedFuture(
+                new ApiDataObject().put("$data", new ApiDataObject().put("id", "a"))));
+        Mockito.when(orders.getOrdersByAccountAsync("a", 25)).thenReturn(CompletableFuture.completedFuture(accountOrders));
+        Mockito.when(subscriptions.getSubscriptionsByAccountAsync("a", 25)).thenReturn(new CompletableFuture<>());
+
+        ApiDataObject customer = customers.getCustomer("a");
+
+        Assertions.assertEquals("a", customer.getDataObject("account").get("id"));
+        Assertions.assertEquals(accountOrders, customer.get("orders"));
+        Assertions.assertNull(customer.get("subscriptions"));
+        Assertions.assertTrue(customer.getDataObject("errors").containsKey("subscriptions"));
+        Assertions.assertEquals(false, customer.get("complete"));
+    }
+
+    @Test
+    void failsWhenTheAccountDoesNotExist() {
+        CompletableFuture<ApiDataObject> missing = new CompletableFuture<>();
+        missing.completeExceptionally(new CustomerNotFoundException("a"));
+        Mockito.when(accounts.getAccountAsync("a")).thenReturn(missing);
+        Mockito.when(orders.getOrdersByAccountAsync("a", 25)).thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+        Mockito.when(subscriptions.getSubscriptionsByAccountAsync("a", 25)).thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+
+        Assertions.assertThrows(CustomerNotFoundException.class, () -> customers.getCustomer("a"));
+    }
+}
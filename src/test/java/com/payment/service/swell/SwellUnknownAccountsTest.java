@@ -0,0 +1,91 @@
+package com.payment.service.swell;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+class SwellUnknownAccountsTest {
+
+    @Test
+    void remembersUnknownAccountsUntilTheyAreCreated() {
+        SwellUnknownAccounts unknownAccounts = new SwellUnknownAccounts(config(false, true, 60000));
+        unknownAccounts.recordMissing("Typo@excede.com.au");
+
+        Assertions.assertTrue(unknownAccounts.isKnownMissing("typo@excede.com.au"));
+        unknownAccounts.recordExisting("typo@excede.com.au");
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("typo@excede.com.au"));
+    }
+
+    @Test
+    void rejectsEmailsMissingFromACompleteBloomFilter() {
+        SwellUnknownAccounts unknownAccounts = new SwellUnknownAccounts(config(true, true, 60000));
+        SwellUnknownAccounts.Rebuild rebuild = unknownAccounts.startRebuild();
+        rebuild.add(Arrays.asList(new ApiDataObject().put("email", "a@excede.com.au"), new ApiDataObject().put("email", "b@excede.com.au")));
+        // Not trusted until the full fetch completed.
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+
+        rebuild.complete();
+        Assertions.assertTrue(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("A@excede.com.au"));
+        // Ids are never rejected by the filter.
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("5f2a0c1e"));
+
+        unknownAccounts.recordAccounts(Collections.singletonList(new ApiDataObject().put("email", "new@excede.com.au")));
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("new@excede.com.au"));
+    }
+
+    @Test
+    void distrustsTheBloomFilterWithoutARecentSync() throws InterruptedException {
+        SwellUnknownAccounts unknownAccounts = new SwellUnknownAccounts(config(true, true, 50));
+        completeRebuild(unknownAccounts);
+        Assertions.assertTrue(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+
+        Thread.sleep(100);
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+        unknownAccounts.recordSynced();
+        Assertions.assertTrue(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+    }
+
+    @Test
+    void neverBuildsTheBloomFilterWhileTheSyncIsOff() {
+        SwellUnknownAccounts unknownAccounts = new SwellUnknownAccounts(config(true, false, 60000));
+        Assertions.assertNull(unknownAccounts.startRebuild());
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+    }
+
+    @Test
+    void aClosedRebuildIsNeverTrusted() {
+        SwellUnknownAccounts unknownAccounts = new SwellUnknownAccounts(config(true, true, 60000));
+        try (SwellUnknownAccounts.Rebuild rebuild = unknownAccounts.startRebuild()) {
+            rebuild.add(Collections.singletonList(new ApiDataObject().put("email", "a@excede.com.au")));
+            // The fetch failed before completing.
+        }
+        Assertions.assertFalse(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+        completeRebuild(unknownAccounts);
+        Assertions.assertTrue(unknownAccounts.isKnownMissing("bot@excede.com.au"));
+    }
+
+    private static void completeRebuild(SwellUnknownAccounts unknownAccounts) {
+        try (SwellUnknownAccounts.Rebuild rebuild = unknownAccounts.startRebuild()) {
+            rebuild.add(Collections.singletonList(new ApiDataObject().put("email", "a@excede.com.au")));
+            rebuild.complete();
+        }
+    }
+
+    private static SwellConfig config(boolean bloom, boolean sync, long maxStalenessMs) {
+        SwellConfig config = Mockito.mock(SwellConfig.class);
+        Mockito.when(config.getAccountsNegativeTtlMs()).thenReturn(30000L);
+        Mockito.when(config.getAccountsNegativeMaxEntries()).thenReturn(100);
+        Mockito.when(config.isAccountsBloomEnabled()).thenReturn(bloom);
+        Mockito.when(config.getAccountsBloomExpectedEmails()).thenReturn(1000L);
+        Mockito.when(config.getAccountsBloomFalsePositiveRate()).thenReturn(0.001);
+        Mockito.when(config.getAccountsBloomMaxStalenessMs()).thenReturn(maxStalenessMs);
+        Mockito.when(config.isSyncEnabled()).thenReturn(sync);
+        return config;
+    }
+}
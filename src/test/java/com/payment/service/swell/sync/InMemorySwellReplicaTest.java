@@ -0,0 +1,35 @@
+package com.payment.service.swell.sync;
+
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+class InMemorySwellReplicaTest {
+
+    @Test
+    void updatesReplaceTheIndexedEmail() {
+        InMemorySwellReplica replica = new InMemorySwellReplica();
+        replica.upsert("/accounts", Collections.singletonList(account("a", "Old@excede.com.au")));
+        replica.upsert("/accounts", Collections.singletonList(account("a", "new@excede.com.au")));
+
+        Assertions.assertEquals(1, replica.size("/accounts"));
+        Assertions.assertNull(replica.findAccount("old@excede.com.au"));
+        Assertions.assertEquals("a", replica.findAccount("NEW@excede.com.au").get("id"));
+    }
+
+    @Test
+    void anEmailTakenOverByAnotherAccountStaysWithIt() {
+        InMemorySwellReplica replica = new InMemorySwellReplica();
+        replica.upsert("/accounts", Collections.singletonList(account("a", "shared@excede.com.au")));
+        replica.upsert("/accounts", Collections.singletonList(account("b", "shared@excede.com.au")));
+        replica.upsert("/accounts", Collections.singletonList(account("a", "other@excede.com.au")));
+
+        Assertions.assertEquals("b", replica.findAccount("shared@excede.com.au").get("id"));
+    }
+
+    private static ApiDataObject account(String id, String email) {
+        return new ApiDataObject().put("id", id).put("email", email);
+    }
+}
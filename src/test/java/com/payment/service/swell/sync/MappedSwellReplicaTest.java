@@ -0,0 +1,80 @@
+package com.payment.service.swell.sync;
+
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+class MappedSwellReplicaTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void survivesARestart() {
+        MappedSwellReplica replica = new MappedSwellReplica(dataDir);
+        replica.upsert("/accounts", Arrays.asList(account("a", "A@excede.com.au"), account("b", "b@excede.com.au")));
+        replica.upsert("/orders", Collections.singletonList(new ApiDataObject().put("id", "o1").put("account_id", "a")));
+        replica.close();
+
+        MappedSwellReplica reopened = new MappedSwellReplica(dataDir);
+        Assertions.assertEquals(2, reopened.size("/accounts"));
+        Assertions.assertEquals("b", reopened.findAccount("b@excede.com.au").get("id"));
+        Assertions.assertEquals("a", reopened.findAccount("a@excede.com.au").get("id"));
+        Assertions.assertEquals("a", reopened.get("/orders", "o1").get("account_id"));
+        reopened.close();
+    }
+
+    @Test
+    void updatesReplaceTheIndexedRecord() {
+        MappedSwellReplica replica = new MappedSwellReplica(dataDir);
+        replica.upsert("/accounts", Collections.singletonList(account("a", "old@excede.com.au")));
+        replica.upsert("/accounts", Collections.singletonList(account("a", "new@excede.com.au")));
+
+        Assertions.assertEquals(1, replica.size("/accounts"));
+        Assertions.assertNull(replica.findAccount("old@excede.com.au"));
+        Assertions.assertEquals("new@excede.com.au", replica.findAccount("a").get("email"));
+        replica.close();
+    }
+
+    @Test
+    void growsPastTheInitialMapping() {
+        MappedSwellReplica replica = new MappedSwellReplica(dataDir);
+        char[] padding = new char[4096];
+        Arrays.fill(padding, 'x');
+        for (int i = 0; i < 600; i++) {
+            replica.upsert("/accounts", Collections.singletonList(account("id" + i, i + "@excede.com.au").put("notes", new String(padding))));
+        }
+        replica.close();
+
+        MappedSwellReplica reopened = new MappedSwellReplica(dataDir);
+        Assertions.assertEquals(600, reopened.size("/accounts"));
+        Assertions.assertEquals("id599", reopened.findAccount("599@excede.com.au").get("id"));
+        reopened.close();
+    }
+
+    @Test
+    void compactsSupersededRecordsOnStartup() throws Exception {
+        MappedSwellReplica replica = new MappedSwellReplica(dataDir);
+        char[] padding = new char[4096];
+        Arrays.fill(padding, 'x');
+        for (int i = 0; i < 600; i++) {
+            replica.upsert("/accounts", Collections.singletonList(account("a", "a@excede.com.au").put("version", i).put("notes", new String(padding))));
+        }
+        replica.close();
+
+        MappedSwellReplica reopened = new MappedSwellReplica(dataDir);
+        Assertions.assertEquals(599L, reopened.findAccount("a@excede.com.au").get("version"));
+        Assertions.assertTrue(Files.size(dataDir.resolve("accounts.replica")) <= 2 << 20);
+        reopened.close();
+    }
+
+    private static ApiDataObject account(String id, String email) {
+        return new ApiDataObject().put("id", id).put("email", email);
+    }
+}
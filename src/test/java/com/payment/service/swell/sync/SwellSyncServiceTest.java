@@ -0,0 +1,57 @@
+package com.payment.service.swell.sync;
+
+import com.payment.configuration.SwellConfig;
+import com.payment.integration.swell.SwellPageFetcher;
+import com.payment.integration.swell.SwellPageIterator;
+import com.payment.service.swell.SwellUnknownAccounts;
+import com.payment.util.ApiDataObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+class SwellSyncServiceTest {
+    private final SwellConfig config = Mockito.mock(SwellConfig.class);
+    private final SwellPageFetcher pageFetcher = Mockito.mock(SwellPageFetcher.class);
+    private final InMemorySwellReplica replica = new InMemorySwellReplica();
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void firstSyncFetchesEverythingAndLaterSyncsOnlyChanges() {
+        Mockito.when(config.getSyncOverlapMs()).thenReturn(60000L);
+        SwellSyncService sync = new SwellSyncService(config, pageFetcher, replica, new SwellSyncWatermarks(dataDir), new SwellUnknownAccounts(config));
+        SwellPageIterator firstPages = pages(Arrays.asList(
+                account("a", "2023-01-01T00:00:00.000Z"), account("b", "2023-01-02T00:00:00.000Z")));
+        SwellPageIterator changedPages = pages(Arrays.asList(account("a", "2023-01-03T00:00:00.000Z")));
+        ArgumentCaptor<ApiDataObject> queries = ArgumentCaptor.forClass(ApiDataObject.class);
+        Mockito.when(pageFetcher.pages(Mockito.eq("/accounts"), Mockito.anyInt(), queries.capture())).thenReturn(firstPages, changedPages);
+
+        Assertions.assertEquals(2, sync.sync("/accounts"));
+        Assertions.assertNull(queries.getAllValues().get(0).get("where"));
+
+        Assertions.assertEquals(1, sync.sync("/accounts"));
+        ApiDataObject where = queries.getAllValues().get(1).getDataObject("where");
+        Assertions.assertEquals("2023-01-01T23:59:00Z", where.getDataObject("date_updated").get("$gte"));
+        Assertions.assertEquals("2023-01-03T00:00:00.000Z", replica.get("/accounts", "a").get("date_updated"));
+        Assertions.assertEquals(2, replica.size("/accounts"));
+        Assertions.assertEquals("2023-01-03T00:00:00.000Z", new SwellSyncWatermarks(dataDir).get("/accounts"));
+    }
+
+    private static SwellPageIterator pages(List<ApiDataObject> records) {
+        SwellPageIterator pages = Mockito.mock(SwellPageIterator.class);
+        Mockito.when(pages.hasNext()).thenReturn(true, false);
+        Mockito.when(pages.next()).thenReturn(records);
+        return pages;
+    }
+
+    private static ApiDataObject account(String id, String updated) {
+        return new ApiDataObject().put("id", id).put("date_updated", updated);
+    }
+}
@@ -0,0 +1,64 @@
+package com.payment.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+class CompactDataMapTest {
+
+    @Test
+    void behavesLikeAHashMap() {
+        Map<String, Object> compact = new CompactDataMap();
+        Map<String, Object> expected = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            compact.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+        compact.put("key3", null);
+        expected.put("key3", null);
+        compact.remove("key5");
+        expected.remove("key5");
+        Assertions.assertEquals(expected, compact);
+        Assertions.assertEquals(expected.hashCode(), compact.hashCode());
+        Assertions.assertTrue(compact.containsKey("key3"));
+        Assertions.assertNull(compact.get("key5"));
+    }
+
+    @Test
+    void recordsWithTheSameKeysShareTheirKeyStrings() {
+        ApiDataObject first = JsonDataParser.parse("{\"id\":\"a\",\"email\":\"a@excede.com.au\"}");
+        ApiDataObject second = JsonDataParser.parse("{\"id\":\"b\",\"email\":\"b@excede.com.au\"}");
+        Assertions.assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        Assertions.assertEquals("b@excede.com.au", second.get("email"));
+    }
+
+    @Test
+    void iteratorRemovesEntries() {
+        Map<String, Object> compact = new CompactDataMap();
+        compact.put("id", "a");
+        compact.put("email", "a@excede.com.au");
+        compact.put("phone", "0400000000");
+        Iterator<Map.Entry<String, Object>> entries = compact.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getKey().equals("email")) {
+                entries.remove();
+            }
+        }
+        Assertions.assertEquals(2, compact.size());
+        Assertions.assertEquals("0400000000", compact.get("phone"));
+        Assertions.assertFalse(compact.containsKey("email"));
+    }
+
+    @Test
+    void fallsBackToAHashMapForWideObjects() {
+        Map<String, Object> compact = new CompactDataMap();
+        for (int i = 0; i <= CompactDataMap.MAX_SHAPE_KEYS; i++) {
+            compact.put("field" + i, i);
+        }
+        Assertions.assertEquals(CompactDataMap.MAX_SHAPE_KEYS + 1, compact.size());
+        Assertions.assertEquals(CompactDataMap.MAX_SHAPE_KEYS, compact.get("field" + CompactDataMap.MAX_SHAPE_KEYS));
+    }
+}
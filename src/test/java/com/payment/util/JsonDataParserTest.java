@@ -0,0 +1,50 @@
+package com.payment.util;
+
+import com.payment.exception.classes.JsonDataParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.StringReader;
+import java.util.List;
+
+class JsonDataParserTest {
+
+    @Test
+    void parsesNestedObjectsAndArrays() {
+        ApiDataObject response = JsonDataParser.parse("{\"$data\":{\"count\":2,\"results\":[{\"id\":\"a\",\"total\":1.5},{\"id\":\"b\",\"active\":true,\"phone\":null}]}}");
+        ApiDataObject data = response.getDataObject("$data");
+        Assertions.assertEquals(2L, data.get("count"));
+        List<?> results = (List<?>) data.get("results");
+        Assertions.assertEquals(1.5, ((ApiDataObject) results.get(0)).get("total"));
+        Assertions.assertEquals(Boolean.TRUE, ((ApiDataObject) results.get(1)).get("active"));
+        Assertions.assertTrue(((ApiDataObject) results.get(1)).containsKey("phone"));
+    }
+
+    @Test
+    void decodesEscapes() {
+        ApiDataObject response = JsonDataParser.parse("{\"name\":\"a \\\"quoted\\\" \\u00e9\\n\\\\\"}");
+        Assertions.assertEquals("a \"quoted\" é\n\\", response.get("name"));
+    }
+
+    @Test
+    void returnsNullForNullLiteral() {
+        Assertions.assertNull(JsonDataParser.parse("null"));
+    }
+
+    @Test
+    void readsConsecutiveLinesFromOneStream() throws Exception {
+        JsonDataReader reader = new JsonDataReader(new StringReader("{\"page\":1}\n{\"page\":2}\nnull\n"));
+        Assertions.assertEquals(1L, ((ApiDataObject) reader.readLineValue()).get("page"));
+        Assertions.assertEquals(2L, ((ApiDataObject) reader.readLineValue()).get("page"));
+        Assertions.assertNull(reader.readLineValue());
+        Assertions.assertThrows(EOFException.class, reader::readLineValue);
+    }
+
+    @Test
+    void throwsOnMalformedJson() {
+        Assertions.assertThrows(JsonDataParseException.class, () -> JsonDataParser.parse("{\"id\":}"));
+        Assertions.assertThrows(JsonDataParseException.class, () -> JsonDataParser.parse("{\"id\":\"a\""));
+        Assertions.assertThrows(JsonDataParseException.class, () -> JsonDataParser.parse("[1,2]"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.payment.util;
+
+import org.json.simple.JSONArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class JsonDataWriterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesNestedObjectsAndLists() {
+        JSONArray tags = new JSONArray();
+        tags.add("vip");
+        tags.add(new ApiDataObject().put("level", 2));
+        ApiDataObject body = new ApiDataObject()
+                .put("where", new ApiDataObject().put("ids", Arrays.asList("a", "b")))
+                .put("tags", tags)
+                .put("total", 1.5)
+                .put("phone", null);
+        ApiDataObject parsed = JsonDataParser.parse(body.toString());
+        Assertions.assertEquals(Arrays.asList("a", "b"), parsed.getDataObject("where").get("ids"));
+        Assertions.assertEquals(2L, ((ApiDataObject) ((JSONArray) parsed.get("tags")).get(1)).get("level"));
+        Assertions.assertEquals(1.5, parsed.get("total"));
+        Assertions.assertTrue(parsed.containsKey("phone"));
+    }
+
+    @Test
+    void escapesStrings() {
+        String name = "a \"quoted\" \\ name\n\t\u0001";
+        Assertions.assertEquals("\"a \\\"quoted\\\" \\\\ name\\n\\t\\u0001\"", JsonDataWriter.toJson(name));
+        Assertions.assertEquals(name, JsonDataParser.parse(new ApiDataObject().put("name", name).toString()).get("name"));
+    }
+
+    @Test
+    void writesNonFiniteNumbersAsNull() {
+        Assertions.assertEquals("[null,1]", JsonDataWriter.toJson(Arrays.asList(Double.NaN, 1)));
+    }
+}